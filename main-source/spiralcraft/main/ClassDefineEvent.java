@@ -0,0 +1,101 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * <p>Flight Recorder event emitted when a LauncherClassLoader (or a
+ *   subclass) locates and defines a class. The event duration covers the
+ *   lookup and the definition- defineTime isolates the definition itself.
+ * </p>
+ * 
+ * <p>jdk.jfr is an optional dependency of the boot module. The event is
+ *   only used through start() and defined(), whose signatures do not 
+ *   mention JFR types, and only when the jdk.jfr module is present, so 
+ *   the launcher boots on a runtime without it.
+ * </p>
+ */
+@Name("spiralcraft.ClassDefine")
+@Label("Class Define")
+@Category({"Spiralcraft","Class Loading"})
+@Description("A class located and defined by a Spiralcraft classloader")
+@StackTrace(false)
+class ClassDefineEvent
+  extends jdk.jfr.Event
+{
+  @Label("Class Name")
+  public String className;
+  
+  @Label("Source")
+  @Description("The jar or directory the class was loaded from")
+  public String source;
+  
+  @Label("Class Loader")
+  public String classLoader;
+  
+  @Label("Bytes")
+  @DataAmount
+  public int bytes;
+  
+  @Label("Define Time")
+  @Timespan(Timespan.NANOSECONDS)
+  public long defineTime;
+  
+  ClassDefineEvent()
+  { 
+  }
+  
+  /**
+   * Begin timing a class definition, returning the event to pass to 
+   *   defined()
+   */
+  static Object start()
+  {
+    ClassDefineEvent event=new ClassDefineEvent();
+    event.begin();
+    return event;
+  }
+  
+  /**
+   * End the event started by start() and commit it if it is enabled
+   */
+  static void defined
+    (Object started
+    ,LauncherClassLoader loader
+    ,String className
+    ,int bytes
+    ,long defineTime
+    )
+  {
+    ClassDefineEvent event=(ClassDefineEvent) started;
+    event.end();
+    if (event.shouldCommit())
+    {
+      event.defineTime=defineTime;
+      event.className=className;
+      event.bytes=bytes;
+      event.classLoader=loader.getClass().getName();
+      event.source=loader.findSource(className.replace('.','/')+".class");
+      event.commit();
+    }
+  }
+}
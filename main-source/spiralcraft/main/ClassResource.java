@@ -46,4 +46,23 @@ public abstract class ClassResource
   public abstract void shutdown();
   
   abstract URL getResource(String path);
+  
+  /**
+   * <p>List the names of all the entries in this resource, for use in a 
+   *   combined index.
+   * </p>
+   * 
+   * @return The entry names, or null if this resource cannot be indexed and
+   *   must be searched directly.
+   */
+  String[] listEntries()
+    throws IOException
+  { return null;
+  }
+  
+  /**
+   * The file that contains this resource, used to validate a persisted
+   *   index.
+   */
+  abstract java.io.File getFile();
 }
@@ -38,6 +38,11 @@ public class FileClassResource
   { return _file.getPath();
   }
   
+  @Override
+  File getFile()
+  { return _file;
+  }
+  
   @Override
   InputStream getResourceAsStream(String path)
   {
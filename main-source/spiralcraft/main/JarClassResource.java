@@ -15,25 +15,44 @@
 package spiralcraft.main;
 
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.BufferedInputStream;
 import java.net.URI;
 import java.net.URL;
 
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarFile;
 import java.util.jar.JarEntry;
 
 /**
- * Loads classes contained in a specific jar
+ * <p>Loads classes contained in a specific jar
+ * </p>
+ * 
+ * <p>A single JarFile is opened on first use and shared by all threads.
+ *   Each read registers itself as a user of the JarFile, and shutdown()
+ *   defers closing the JarFile until the last in-flight read completes,
+ *   so a concurrent shutdown never closes the jar out from under a 
+ *   reader. Lookups themselves take no locks.
+ * </p>
  */
 public class JarClassResource
   extends ClassResource
 {
   private final File _file;
-  private JarFile _jarFile;
-  private boolean closed;
+  private volatile JarFile _jarFile;
+  private volatile boolean closed;
+  private final AtomicInteger users=new AtomicInteger();
 
+  /**
+   * <p>Construct a JarClassResource for the specified jar file. The jar is
+   *   not opened until the first lookup that needs it.
+   * </p>
+   * 
+   * @throws IOException if the file does not exist or cannot be read
+   */
   public JarClassResource(String file)
     throws IOException
   { 
@@ -41,6 +60,9 @@ public class JarClassResource
     if (!_file.exists())
     { throw new IOException("File "+file+" does not exist");
     }
+    if (!_file.canRead())
+    { throw new IOException("File "+file+" cannot be read");
+    }
   }
 
   @Override
@@ -48,6 +70,30 @@ public class JarClassResource
   { return _file.getPath();
   }
   
+  @Override
+  File getFile()
+  { return _file;
+  }
+  
+  @Override
+  String[] listEntries()
+    throws IOException
+  {
+    JarFile jarFile=acquire();
+    try
+    {
+      ArrayList<String> names=new ArrayList<String>(jarFile.size());
+      Enumeration<JarEntry> entries=jarFile.entries();
+      while (entries.hasMoreElements())
+      { names.add(entries.nextElement().getName());
+      }
+      return names.toArray(new String[names.size()]);
+    }
+    finally
+    { release();
+    }
+  }
+  
   private void assertOpen()
   { 
     if (closed)
@@ -58,42 +104,72 @@ public class JarClassResource
   @Override
   InputStream getResourceAsStream(String path)
   { 
-    assertOpen();
     try
     {
-      openJar();
-  
-      JarEntry jarEntry=_jarFile.getJarEntry(path);
-      if (jarEntry==null)
-      { return null;
+      final JarFile jarFile=acquire();
+      boolean released=false;
+      try
+      {
+        JarEntry jarEntry=jarFile.getJarEntry(path);
+        if (jarEntry==null)
+        { return null;
+        }
+        
+        InputStream in=new FilterInputStream(jarFile.getInputStream(jarEntry))
+        {
+          private boolean streamClosed;
+          
+          @Override
+          public void close()
+            throws IOException
+          { 
+            synchronized (this)
+            {
+              if (streamClosed)
+              { return;
+              }
+              streamClosed=true;
+            }
+            try
+            { super.close();
+            }
+            finally
+            { release();
+            }
+          }
+        };
+        // The stream releases the jar when it is closed
+        released=true;
+        return in;
       }
-      else
-      { return _jarFile.getInputStream(jarEntry);
+      finally
+      { 
+        if (!released)
+        { release();
+        }
       }
     }
     catch (IOException x)
     { return null;
     }
-    finally
-    {
-      if (closed)
-      { shutdown();
-      }
-    }
   }
 
 
   @Override
   public URL getResource(String path)
   {
-    assertOpen();
     try
     { 
-      openJar();
-      JarEntry jarEntry=_jarFile.getJarEntry(path);
-      
-      if (jarEntry==null)
-      { return null;
+      JarFile jarFile=acquire();
+      try
+      {
+        JarEntry jarEntry=jarFile.getJarEntry(path);
+        if (jarEntry==null)
+        { return null;
+        }
+      }
+      finally
+      { release();
       }
       return URI.create("jar:"+_file.toURI().toString()+"!/"+path)
         .toURL();
@@ -107,65 +183,111 @@ public class JarClassResource
   byte[] loadData(String path)
     throws IOException
   {
-    assertOpen();
-    openJar();
-
-    BufferedInputStream in = null;
+    JarFile jarFile=acquire();
     try
     {
-      JarEntry jarEntry=_jarFile.getJarEntry(path);
+      JarEntry jarEntry=jarFile.getJarEntry(path);
       if (jarEntry==null)
       { return null;
       }
       
-      in = new BufferedInputStream(_jarFile.getInputStream(jarEntry));
-
-      byte[] data = new byte[(int) jarEntry.getSize()];
-      in.read(data);
-      return data;
+      try (InputStream in=jarFile.getInputStream(jarEntry))
+      {
+        long size=jarEntry.getSize();
+        if (size<0 || size>Integer.MAX_VALUE)
+        { return in.readAllBytes();
+        }
+        
+        byte[] data=new byte[(int) size];
+        int count=in.readNBytes(data,0,data.length);
+        if (count<data.length)
+        { throw new IOException("Truncated entry "+path+" in "+_file);
+        }
+        return data;
+      }
     }
     finally 
+    { release();
+    }
+  }
+  
+  /**
+   * Register a read of the JarFile, opening it if necessary. Every
+   *   successful call must be paired with a call to release().
+   */
+  private JarFile acquire()
+    throws IOException
+  {
+    users.incrementAndGet();
+    if (closed)
     { 
-      if (in!=null)
+      release();
+      assertOpen();
+    }
+    
+    try
+    { return openJar();
+    }
+    catch (IOException | RuntimeException x)
+    { 
+      release();
+      throw x;
+    }
+  }
+  
+  /**
+   * Complete a read of the JarFile, closing it if this was the last reader
+   *   after a shutdown.
+   */
+  private void release()
+  {
+    if (users.decrementAndGet()==0 && closed)
+    { closeJar();
+    }
+  }
+  
+  private JarFile openJar()
+    throws IOException
+  {
+    JarFile jarFile=_jarFile;
+    if (jarFile==null)
+    { 
+      synchronized (this)
       {
-        try
-        { in.close();
+        jarFile=_jarFile;
+        if (jarFile==null)
+        {
+          jarFile=new JarFile(_file,false,JarFile.OPEN_READ);
+          _jarFile=jarFile;
+          // System.err.println("Opened jar "+jarFile.getName());
         }
-        catch (IOException y)
-        { }
-      }
-      if (closed)
-      { shutdown();
       }
     }
+    return jarFile;
   }
   
-  private void openJar()
-    throws IOException
+  private synchronized void closeJar()
   {
-    if (_jarFile==null)
+    JarFile jarFile=_jarFile;
+    _jarFile=null;
+    if (jarFile!=null)
     { 
-      _jarFile=new JarFile(_file,false,JarFile.OPEN_READ);
-      // System.err.println("Opened jar "+_jarFile.getName());
+      try
+      { 
+        // System.err.println("Closing jar "+jarFile.getName());
+        jarFile.close();
+      }
+      catch (IOException x)
+      { }
     }
-    
   }
   
   @Override
   public void shutdown()
   { 
-    try
-    { 
-
-      closed=true;
-      if (_jarFile!=null)
-      { 
-        // System.err.println("Closing jar "+_jarFile.getName());
-        _jarFile.close();
-      }
-      _jarFile=null;
+    closed=true;
+    if (users.get()==0)
+    { closeJar();
     }
-    catch (IOException x)
-    { }
   }
 }
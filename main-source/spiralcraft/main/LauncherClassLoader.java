@@ -14,18 +14,49 @@
 //
 package spiralcraft.main;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * <p>Loads classes contained in a specific set of resources
  * </p>
+ * 
+ * <p>The entries of indexable resources are combined into a single
+ *   name-to-resource index, so that each lookup touches only the resource
+ *   that contains the name. Resources are added to the index in order, the
+ *   first time a lookup misses in all the resources before them, so a
+ *   resource that is never needed is never opened. Resources that cannot
+ *   be indexed are still searched directly, in order.
+ * </p>
+ * 
+ * <p>If an index file is specified, the index is read from that file for
+ *   each resource whose length and modification time still match, and the
+ *   file is rewritten on shutdown when any resource had to be re-read.
+ * </p>
+ * 
+ * <p>This ClassLoader is parallel capable. Lookups read the published
+ *   index and resource list without locking, and classes with different
+ *   names are defined concurrently.
+ * </p>
  */
 public class LauncherClassLoader
   extends ClassLoader
@@ -61,9 +92,23 @@ public class LauncherClassLoader
   
   }
   
+  static
+  { registerAsParallelCapable();
+  }
+  
+  private static final String INDEX_HEADER="# spiralcraft boot index 1";
+  private static final ClassResource[] NO_RESOURCES=new ClassResource[0];
+  
+  // jdk.jfr is optional (requires static), so ClassDefineEvent is only
+  //   loaded when the module is present in the runtime
+  private static final boolean JFR_AVAILABLE
+    =ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+  
   protected boolean debug;
-  private List<ClassResource> resources
-    =new ArrayList<ClassResource>();
+  private final List<ClassResource> resources
+    =new CopyOnWriteArrayList<ClassResource>();
+  private File indexFile;
+  private volatile Index index;
 
   /**
    * <p>Construct a LauncherClassLoader that delegates to the default
@@ -103,7 +148,18 @@ public class LauncherClassLoader
   }
   
   public void addResource(ClassResource resource)
-  { resources.add(resource);
+  { 
+    resources.add(resource);
+    index=null;
+  }
+  
+  /**
+   * <p>Specify a file in which to persist the combined resource index 
+   *   across runs.
+   * </p>
+   */
+  public void setIndexFile(File indexFile)
+  { this.indexFile=indexFile;
   }
 
   public void setDebug(boolean debug)
@@ -114,14 +170,58 @@ public class LauncherClassLoader
   public Class<?> findClass(String name)
     throws ClassNotFoundException
   { 
+    Object event=JFR_AVAILABLE?ClassDefineEvent.start():null;
+    long start=System.nanoTime();
     byte[] classData=loadClassData(name);
     if (classData!=null)
-    { return defineClass(name,classData,0,classData.length);
+    { 
+      long defineStart=System.nanoTime();
+      Class<?> clazz=defineClass(name,classData,0,classData.length);
+      long defineTime=System.nanoTime()-defineStart;
+      classDefined(name,classData.length,defineStart-start,defineTime);
+      
+      if (event!=null)
+      { ClassDefineEvent.defined(event,this,name,classData.length,defineTime);
+      }
+      return clazz;
     }
     else
     { throw new ClassNotFoundException(name);
     }
   }
+  
+  /**
+   * <p>Called after a class has been located and defined by this
+   *   ClassLoader, for instrumentation. The default implementation
+   *   does nothing.
+   * </p>
+   * 
+   * @param name The class name
+   * @param bytes The size of the class file
+   * @param loadNanos The time spent locating and reading the class file
+   * @param defineNanos The time spent in defineClass
+   */
+  protected void classDefined(String name,int bytes,long loadNanos,long defineNanos)
+  { 
+  }
+  
+  /**
+   * Describe the jar or directory that supplies the specified resource,
+   *   for diagnostics. 
+   */
+  protected String findSource(String path)
+  {
+    Index index=getIndex();
+    for (int i=0;i<index.resources.length;i++)
+    {
+      if (index.mayContain(i,path) 
+          && index.resources[i].getResource(path)!=null
+          )
+      { return index.resources[i].getClassPath();
+      }
+    }
+    return null;
+  }
 
   private byte[] loadClassData(String name)
   {
@@ -161,8 +261,13 @@ public class LauncherClassLoader
       }
     }
     
-    for (ClassResource resource:resources)
+    Index index=getIndex();
+    for (int i=0;i<index.resources.length;i++)
     {
+      if (!index.mayContain(i,path))
+      { continue;
+      }
+      ClassResource resource=index.resources[i];
       InputStream data=resource.getResourceAsStream(path);
       if (data!=null)
       { return data;
@@ -177,8 +282,13 @@ public class LauncherClassLoader
   protected URL findResource(String path)
   { 
     // System.err.println("fr:"+path);
-    for (ClassResource resource:resources)
+    Index index=getIndex();
+    for (int i=0;i<index.resources.length;i++)
     {
+      if (!index.mayContain(i,path))
+      { continue;
+      }
+      ClassResource resource=index.resources[i];
       URL url=resource.getResource(path);
       if (url!=null)
       { return url;
@@ -195,8 +305,13 @@ public class LauncherClassLoader
     // System.err.println("grs:"+path);
     
     final LinkedList<URL> list=new LinkedList<URL>();
-    for (ClassResource resource:resources)
+    Index index=getIndex();
+    for (int i=0;i<index.resources.length;i++)
     {
+      if (!index.mayContain(i,path))
+      { continue;
+      }
+      ClassResource resource=index.resources[i];
       URL url=resource.getResource(path);
       if (url!=null)
       { list.add(url);
@@ -219,8 +334,13 @@ public class LauncherClassLoader
   protected byte[] loadData(String path)
     throws IOException
   {
-    for (ClassResource resource:resources)
+    Index index=getIndex();
+    for (int i=0;i<index.resources.length;i++)
     {
+      if (!index.mayContain(i,path))
+      { continue;
+      }
+      ClassResource resource=index.resources[i];
       byte[] data=resource.loadData(path);
       if (data!=null)
       { return data;
@@ -234,10 +354,330 @@ public class LauncherClassLoader
    */
   public void shutdown()
   {
+    Index index=this.index;
+    if (index!=null)
+    { index.save();
+    }
     for (ClassResource resource:resources)
     { resource.shutdown();
     }
   }
+  
+  /**
+   * Return the combined index over the current resource list. The index
+   *   starts out empty and examines each resource only when a lookup 
+   *   first needs to search past it.
+   */
+  private Index getIndex()
+  {
+    Index index=this.index;
+    if (index==null)
+    {
+      synchronized (this)
+      {
+        index=this.index;
+        if (index==null)
+        { 
+          index=new Index(resources.toArray(NO_RESOURCES));
+          this.index=index;
+        }
+      }
+    }
+    return index;
+  }
+  
+  private Map<String,IndexEntry> readIndexFile()
+  {
+    Map<String,IndexEntry> entries=new HashMap<String,IndexEntry>();
+    if (indexFile==null || !indexFile.canRead())
+    { return entries;
+    }
+    
+    try (BufferedReader reader
+          =new BufferedReader
+            (new InputStreamReader
+              (new FileInputStream(indexFile),StandardCharsets.UTF_8)
+            )
+        )
+    {
+      if (!INDEX_HEADER.equals(reader.readLine()))
+      { return entries;
+      }
+      
+      String path=null;
+      long length=0;
+      long lastModified=0;
+      ArrayList<String> names=new ArrayList<String>();
+      String line;
+      while ((line=reader.readLine())!=null)
+      {
+        if (line.startsWith("/"))
+        { names.add(line.substring(1));
+        }
+        else if (line.startsWith("@"))
+        {
+          if (path!=null)
+          { 
+            entries.put
+              (path
+              ,new IndexEntry(length,lastModified,names.toArray(new String[0]))
+              );
+          }
+          names.clear();
+          
+          String[] fields=line.substring(1).split(" ",3);
+          length=Long.parseLong(fields[0]);
+          lastModified=Long.parseLong(fields[1]);
+          path=fields[2];
+        }
+      }
+      if (path!=null)
+      { 
+        entries.put
+          (path
+          ,new IndexEntry(length,lastModified,names.toArray(new String[0]))
+          );
+      }
+    }
+    catch (IOException | RuntimeException x)
+    { 
+      // A damaged index is rebuilt from the resources
+      if (debug)
+      { Spiralcraft.err.println("Ignoring boot index "+indexFile+": "+x);
+      }
+      entries.clear();
+    }
+    return entries;
+  }
+  
+  private void writeIndexFile(Map<String,IndexEntry> entries)
+  {
+    if (indexFile==null)
+    { return;
+    }
+    
+    File tempFile=new File(indexFile.getPath()+".tmp");
+    try
+    {
+      try (Writer writer
+            =new BufferedWriter
+              (new OutputStreamWriter
+                (new FileOutputStream(tempFile),StandardCharsets.UTF_8)
+              )
+          )
+      {
+        writer.write(INDEX_HEADER);
+        writer.write('\n');
+        for (Map.Entry<String,IndexEntry> entry:entries.entrySet())
+        {
+          IndexEntry indexEntry=entry.getValue();
+          writer.write
+            ("@"+indexEntry.length
+            +" "+indexEntry.lastModified
+            +" "+entry.getKey()
+            +"\n"
+            );
+          for (String name:indexEntry.names)
+          { 
+            writer.write('/');
+            writer.write(name);
+            writer.write('\n');
+          }
+        }
+      }
+      if (!tempFile.renameTo(indexFile))
+      { 
+        indexFile.delete();
+        if (!tempFile.renameTo(indexFile))
+        { throw new IOException("Could not replace "+indexFile);
+        }
+      }
+    }
+    catch (IOException x)
+    { 
+      // The index is an optimization- the lib directory may be read-only
+      tempFile.delete();
+      if (debug)
+      { Spiralcraft.err.println("Could not write boot index "+indexFile+": "+x);
+      }
+    }
+  }
+  
+  /**
+   * The entry names of a single resource, with the file stamp they were
+   *   read under
+   */
+  private static class IndexEntry
+  {
+    final long length;
+    final long lastModified;
+    final String[] names;
+    
+    IndexEntry(long length,long lastModified,String[] names)
+    { 
+      this.length=length;
+      this.lastModified=lastModified;
+      this.names=names;
+    }
+    
+    IndexEntry(File file,String[] names)
+    { this(file.length(),file.lastModified(),names);
+    }
+  }
+  
+  /**
+   * <p>Maps each entry name to the indexed resources that contain it, in
+   *   search order.
+   * </p>
+   * 
+   * <p>Resources are examined in order, and only once a lookup needs to
+   *   search past the resources examined so far. A hit in an early resource
+   *   therefore never opens a later one. Lookups read the name map without
+   *   locking- a resource's names are all added before the examined count
+   *   that covers it is published.
+   * </p>
+   */
+  private class Index
+  {
+    final ClassResource[] resources;
+    private final boolean[] indexed;
+    private final ConcurrentHashMap<String,ClassResource[]> names
+      =new ConcurrentHashMap<String,ClassResource[]>();
+    private volatile int examined;
+    
+    private Map<String,IndexEntry> entries;
+    private boolean changed;
+    
+    Index(ClassResource[] resources)
+    { 
+      this.resources=resources;
+      this.indexed=new boolean[resources.length];
+    }
+    
+    /**
+     * Whether the resource at the specified position needs to be searched
+     *   for the specified path. Resources which are not indexed must always
+     *   be searched.
+     */
+    boolean mayContain(int position,String path)
+    {
+      if (position>=examined)
+      { examineThrough(position);
+      }
+      if (!indexed[position])
+      { return true;
+      }
+      
+      ClassResource[] containers=names.get(path);
+      if (containers==null && !path.endsWith("/"))
+      { 
+        // Jar lookups match directory entries without the trailing slash
+        containers=names.get(path+"/");
+      }
+      if (containers!=null)
+      {
+        ClassResource resource=resources[position];
+        for (ClassResource container:containers)
+        {
+          if (container==resource)
+          { return true;
+          }
+        }
+      }
+      return false;
+    }
+    
+    private synchronized void examineThrough(int position)
+    {
+      if (entries==null)
+      { entries=readIndexFile();
+      }
+      
+      while (examined<=position)
+      { 
+        examine(examined);
+        // Publishes the names added by examine()
+        examined=examined+1;
+      }
+    }
+    
+    private void examine(int position)
+    {
+      ClassResource resource=resources[position];
+      File file=resource.getFile();
+      String key=file.getAbsolutePath();
+      IndexEntry entry=entries.get(key);
+      if (entry!=null 
+          && (entry.length!=file.length() 
+              || entry.lastModified!=file.lastModified()
+             )
+         )
+      { entry=null;
+      }
+      
+      if (entry==null)
+      {
+        try
+        {
+          String[] entryNames=resource.listEntries();
+          if (entryNames!=null)
+          { 
+            entry=new IndexEntry(file,entryNames);
+            entries.put(key,entry);
+            changed=true;
+          }
+        }
+        catch (IOException x)
+        { 
+          // A boot module that cannot be read is a configuration error. 
+          //   Only a damaged index file is recovered from silently.
+          throw new IllegalStateException("Error reading "+file+": "+x,x);
+        }
+      }
+      
+      if (entry!=null)
+      { 
+        add(resource,entry.names);
+        indexed[position]=true;
+      }
+      if (debug)
+      { 
+        Spiralcraft.err.println
+          ("Boot index: "+file
+          +(entry==null?" searched directly":" "+entry.names.length+" names")
+          );
+      }
+    }
+    
+    private void add(ClassResource resource,String[] entryNames)
+    {
+      for (String name:entryNames)
+      {
+        ClassResource[] containers=names.get(name);
+        if (containers==null)
+        { names.put(name,new ClassResource[] {resource});
+        }
+        else
+        {
+          ClassResource[] expanded=new ClassResource[containers.length+1];
+          System.arraycopy(containers,0,expanded,0,containers.length);
+          expanded[containers.length]=resource;
+          names.put(name,expanded);
+        }
+      }
+    }
+    
+    /**
+     * Persist the entries read so far, along with any still-valid
+     *   entries for resources that were never examined
+     */
+    synchronized void save()
+    {
+      if (changed)
+      { 
+        writeIndexFile(entries);
+        changed=false;
+      }
+    }
+  }
 }
-
-
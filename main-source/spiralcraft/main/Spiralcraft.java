@@ -18,6 +18,7 @@ import java.io.File;
 import java.io.PrintStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.LinkedList;
 import java.util.ArrayList;
 import java.lang.reflect.Method;
@@ -27,13 +28,16 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.channels.FileLock;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.StringTokenizer;
+import java.util.jar.Manifest;
 
 /**
  * <p>Spiralcraft application mode launcher, for running Spiralcraft
@@ -57,7 +61,18 @@ public class Spiralcraft
   public static boolean DEBUG=false;
   public static PrintStream err=System.err;
   public static boolean GUI_REQUESTED;
+  public static boolean VIRTUAL_THREADS;
+  public static boolean RESOURCE_USAGE;
+  public static boolean BOOT_INDEX;
+  public static boolean JMX;
+  public static boolean CLASS_PROFILE;
   public static URI EXECUTION_CONTEXT_URI;
+  
+  public static final String BOOT_MODULES_FILE="lib/spiralcraft-boot.txt";
+  public static final String BOOT_MODULES_ATTRIBUTE="Spiralcraft-Boot-Modules";
+  private static final String MANIFEST_RESOURCE="META-INF/MANIFEST.MF";
+  public static final String DEFAULT_BOOT_MODULES
+    ="spiralcraft-core.jar spiralcraft-launcher.jar spiralcraft-gui.jar;gui";
   public static URI GUI_EXECUTION_CONTEXT_URI
     =URI.create("class:/spiralcraft/launcher/RootGuiConsole");
   public static String defaultlaf
@@ -101,6 +116,7 @@ public class Spiralcraft
    */
   public static void main(String[] args)
   { 
+    StartupTimeline.init();
     int ret=new Spiralcraft().run(args);
     if (ret!=0)
     { System.exit(ret);
@@ -112,11 +128,23 @@ public class Spiralcraft
    */
   protected int run(String[] args)
   {
+    long start=StartupTimeline.start();
     String[] delegateArgs=processArguments(args);
+    if (DEBUG)
+    { StartupTimeline.enable(true,null);
+    }
+    StartupTimeline.end("boot.processArguments",start);
     
+    start=StartupTimeline.start();
     initializeEnvironment();
+    StartupTimeline.end("boot.initializeEnvironment",start);
 
-    return runLoader(delegateArgs);
+    try
+    { return runLoader(delegateArgs);
+    }
+    finally
+    { StartupTimeline.report();
+    }
   }
 
   /**
@@ -158,6 +186,27 @@ public class Spiralcraft
         else if (option=="-lock")
         { lockFile=args[++i];
         }
+        else if (option=="-virtual-threads")
+        { VIRTUAL_THREADS=true;
+        }
+        else if (option=="-resource-usage")
+        { RESOURCE_USAGE=true;
+        }
+        else if (option=="-boot-index")
+        { BOOT_INDEX=true;
+        }
+        else if (option=="-class-profile")
+        { CLASS_PROFILE=true;
+        }
+        else if (option=="-jmx")
+        { JMX=true;
+        }
+        else if (option=="-timeline")
+        { StartupTimeline.enable(true,null);
+        }
+        else if (option=="-timeline-json")
+        { StartupTimeline.enable(false,new File(args[++i]));
+        }
         else
         { extraArgs.add(args[i]);
         }
@@ -213,7 +262,9 @@ public class Spiralcraft
    */
   private void initializeEnvironment()
   {
+    long start=StartupTimeline.start();
     checkLock();
+    StartupTimeline.end("boot.checkLock",start);
     
     if (logFile!=null)
     { 
@@ -251,6 +302,128 @@ public class Spiralcraft
     _spiralcraftHome=System.getProperty("spiralcraft.home");
   }
 
+  /**
+   * <p>Determine the jars in the lib directory which make up the boot
+   *   classpath.
+   * </p>
+   * 
+   * <p>The list is read from lib/spiralcraft-boot.txt if present, 
+   *   otherwise from the Spiralcraft-Boot-Modules attribute of the
+   *   spiralcraft.jar manifest, otherwise the standard module list is used.
+   *   Each module is a jar name, optionally followed by ";gui" if it
+   *   should only be loaded when the gui is requested.
+   * </p>
+   */
+  private List<String> readBootModules()
+  {
+    String spec=null;
+    File bootFile=new File(_spiralcraftHome+File.separator+BOOT_MODULES_FILE);
+    if (bootFile.canRead())
+    {
+      try
+      { 
+        spec=new String
+          (Files.readAllBytes(bootFile.toPath()),StandardCharsets.UTF_8);
+        if (DEBUG)
+        { debug("Reading boot modules from "+bootFile);
+        }
+      }
+      catch (IOException x)
+      { throw new IllegalStateException("Could not read "+bootFile,x);
+      }
+    }
+    
+    if (spec==null)
+    { 
+      spec=readBootModulesAttribute();
+      if (spec!=null && DEBUG)
+      { debug("Reading boot modules from manifest: "+spec);
+      }
+    }
+    
+    if (spec==null)
+    { spec=DEFAULT_BOOT_MODULES;
+    }
+    
+    List<String> modules=new ArrayList<String>();
+    for (String line:spec.split("\\r?\\n"))
+    {
+      int commentPos=line.indexOf('#');
+      if (commentPos>=0)
+      { line=line.substring(0,commentPos);
+      }
+      StringTokenizer tokens=new StringTokenizer(line);
+      while (tokens.hasMoreTokens())
+      {
+        String module=tokens.nextToken();
+        int conditionPos=module.indexOf(';');
+        if (conditionPos>=0)
+        {
+          String condition=module.substring(conditionPos+1);
+          module=module.substring(0,conditionPos);
+          if (condition.equals("gui"))
+          { 
+            if (!GUI_REQUESTED)
+            { continue;
+            }
+          }
+          else
+          { 
+            throw new IllegalArgumentException
+              ("Unknown boot module condition '"+condition+"' for "+module);
+          }
+        }
+        modules.add(module);
+      }
+    }
+    return modules;
+  }
+  
+  /**
+   * Read the boot module list from the manifest of the jar that contains 
+   *   this class, if any. The manifest is read through the class loader,
+   *   which already has the jar open, rather than by opening the jar again.
+   */
+  private String readBootModulesAttribute()
+  {
+    try
+    {
+      ClassLoader loader=Spiralcraft.class.getClassLoader();
+      URL classURL=Spiralcraft.class.getResource("Spiralcraft.class");
+      URL manifestURL
+        =loader!=null?loader.getResource(MANIFEST_RESOURCE):null;
+      if (classURL==null 
+          || manifestURL==null 
+          || !classURL.getProtocol().equals("jar")
+          )
+      { return null;
+      }
+      
+      // The first manifest on the classpath must be the one in our jar
+      String classJar=classURL.toString();
+      classJar=classJar.substring(0,classJar.indexOf("!/")+2);
+      if (!manifestURL.toString().equals(classJar+MANIFEST_RESOURCE))
+      { return null;
+      }
+      
+      try (InputStream in=loader.getResourceAsStream(MANIFEST_RESOURCE))
+      {
+        if (in==null)
+        { return null;
+        }
+        return new Manifest(in).getMainAttributes()
+          .getValue(BOOT_MODULES_ATTRIBUTE);
+      }
+    }
+    catch (IOException | RuntimeException x)
+    { 
+      if (DEBUG)
+      { debug("Could not read boot module manifest: "+x);
+      }
+      return null;
+    }
+  }
+  
   /**
    * Try to determine the home directory from the classpath
    */
@@ -296,32 +469,27 @@ public class Spiralcraft
   { 
     Class<?> mainClass=null;
     LauncherClassLoader classLoader=new LauncherClassLoader();
+    classLoader.setDebug(DEBUG);
     try
     {
       if (_spiralcraftHome!=null)
       { 
-        if (DEBUG)
+        if (BOOT_INDEX)
         { 
-          debug("Creating JarClassLoader for "
-                +_spiralcraftHome+File.separator
-                +"lib/spiralcraft-core.jar"
-                );
+          classLoader.setIndexFile
+            (new File(_spiralcraftHome+File.separator+"lib/spiralcraft-boot.idx"));
         }
-        
-        classLoader.addResource
-          (new JarClassResource
-            (_spiralcraftHome+File.separator+"lib/spiralcraft-core.jar"));
-        classLoader.addResource
-          (new JarClassResource
-            (_spiralcraftHome+File.separator+"lib/spiralcraft-launcher.jar"));
-        if (GUI_REQUESTED)
+        for (String module:readBootModules())
         {
+          if (DEBUG)
+          { 
+            debug("Adding boot module "
+                  +_spiralcraftHome+File.separator+"lib/"+module
+                  );
+          }
           classLoader.addResource
             (new JarClassResource
-              (_spiralcraftHome+File.separator+"lib/spiralcraft-gui.jar"));
-//          classLoader.addResource
-//            (new JarClassResource
-//              (_spiralcraftHome+File.separator+"lib/spiralcraft-shell.jar"));
+              (_spiralcraftHome+File.separator+"lib/"+module));
         }
       }
       else
@@ -332,7 +500,9 @@ public class Spiralcraft
       { System.setProperty("spiralcraft.codebase",_codebase);
       }
 
+      long start=StartupTimeline.start();
       mainClass=classLoader.loadClass("spiralcraft.launcher.Main");
+      StartupTimeline.end("boot.loadClass(spiralcraft.launcher.Main)",start);
       
       if (DEBUG)
       { debug("Loaded main class");
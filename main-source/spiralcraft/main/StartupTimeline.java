@@ -0,0 +1,305 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.main;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Records the duration of each startup phase, from Spiralcraft.main
+ *   through the invocation of the application entry point.
+ * </p>
+ * 
+ * <p>Phases are timed with System.nanoTime() relative to the origin set
+ *   by init(), which is the first action of Spiralcraft.main().
+ *   A phase is recorded by calling start() before it and end() after it.
+ *   When the timeline is not enabled, end() returns immediately.
+ * </p>
+ * 
+ * <p>The timeline is reported once, when the entry point is reached or
+ *   when the launcher exits, whichever comes first. It is printed to
+ *   Spiralcraft.err and/or written as a JSON document, along with the
+ *   resident set size of the process at that point where the platform
+ *   reports it. Recording stops once the timeline has been reported.
+ * </p>
+ */
+public final class StartupTimeline
+{
+  private static final AtomicBoolean initialized=new AtomicBoolean();
+  private static volatile long origin;
+  private static volatile long originMillis;
+  
+  private static final ConcurrentLinkedQueue<Phase> phases
+    =new ConcurrentLinkedQueue<Phase>();
+  private static final AtomicBoolean reported=new AtomicBoolean();
+  
+  private static volatile boolean enabled;
+  private static boolean print;
+  private static File jsonFile;
+  
+  /**
+   * Set the origin of the timeline to now. Called as the first action of
+   *   Spiralcraft.main(), so that every phase is measured from process 
+   *   entry. Only the first call has any effect.
+   */
+  public static void init()
+  { 
+    if (initialized.compareAndSet(false,true))
+    {
+      originMillis=System.currentTimeMillis();
+      origin=System.nanoTime();
+    }
+  }
+  
+  /**
+   * Enable recording
+   * 
+   * @param print Print the timeline to Spiralcraft.err when reported
+   * @param jsonFile If not null, write the timeline to this file as JSON 
+   *   when reported
+   */
+  public static void enable(boolean print,File jsonFile)
+  { 
+    StartupTimeline.print=StartupTimeline.print || print;
+    if (jsonFile!=null)
+    { StartupTimeline.jsonFile=jsonFile;
+    }
+    
+    // Normally already set by Spiralcraft.main()
+    init();
+    enabled=true;
+  }
+  
+  public static boolean isEnabled()
+  { return enabled;
+  }
+  
+  /**
+   * The start time of a phase, to be passed to end()
+   */
+  public static long start()
+  { return System.nanoTime();
+  }
+  
+  /**
+   * Record a phase which started at the specified time and ends now
+   */
+  public static void end(String name,long start)
+  { 
+    if (enabled)
+    { 
+      phases.add
+        (new Phase(name,start,System.nanoTime(),Thread.currentThread().getName()));
+    }
+  }
+  
+  /**
+   * Record an instantaneous event
+   */
+  public static void mark(String name)
+  { 
+    if (enabled)
+    { 
+      long now=System.nanoTime();
+      phases.add(new Phase(name,now,now,Thread.currentThread().getName()));
+    }
+  }
+  
+  /**
+   * Output the timeline, if enabled and not already reported, and stop
+   *   recording.
+   */
+  public static void report()
+  {
+    if (!enabled || !reported.compareAndSet(false,true))
+    { return;
+    }
+    enabled=false;
+    
+    List<Phase> snapshot=new ArrayList<Phase>(phases);
+    Long rssKb=residentSetKb();
+    if (print)
+    { print(Spiralcraft.err,snapshot,rssKb);
+    }
+    if (jsonFile!=null)
+    {
+      try (Writer writer
+            =new OutputStreamWriter
+              (new FileOutputStream(jsonFile),StandardCharsets.UTF_8)
+          )
+      { writeJson(writer,snapshot,rssKb);
+      }
+      catch (IOException x)
+      { Spiralcraft.err.println("Could not write startup timeline to "+jsonFile+": "+x);
+      }
+    }
+  }
+  
+  private static void print(PrintStream out,List<Phase> phases,Long rssKb)
+  {
+    out.println("Startup timeline (ms from launcher start):");
+    Long processStart=processStartOffset();
+    if (processStart!=null)
+    { out.println("  JVM process started "+processStart+"ms before launcher");
+    }
+    if (rssKb!=null)
+    { out.println("  Resident set size "+rssKb+"K");
+    }
+    for (Phase phase:phases)
+    {
+      out.println
+        (String.format
+          ("  %10.3f %10.3f  %s [%s]"
+          ,millis(phase.start-origin)
+          ,millis(phase.end-phase.start)
+          ,phase.name
+          ,phase.thread
+          )
+        );
+    }
+  }
+  
+  private static void writeJson(Writer out,List<Phase> phases,Long rssKb)
+    throws IOException
+  {
+    out.write("{\n");
+    out.write("  \"origin\": \""+Instant.ofEpochMilli(originMillis)+"\",\n");
+    out.write("  \"originEpochMs\": "+originMillis+",\n");
+    Long processStart=processStartOffset();
+    if (processStart!=null)
+    { out.write("  \"processStartOffsetMs\": "+processStart+",\n");
+    }
+    if (rssKb!=null)
+    { out.write("  \"rssKb\": "+rssKb+",\n");
+    }
+    out.write("  \"phases\": [");
+    boolean first=true;
+    for (Phase phase:phases)
+    {
+      out.write(first?"\n":",\n");
+      first=false;
+      out.write
+        ("    {\"name\": "+jsonString(phase.name)
+        +", \"startMs\": "+String.format(Locale.ROOT,"%.3f",millis(phase.start-origin))
+        +", \"durationMs\": "+String.format(Locale.ROOT,"%.3f",millis(phase.end-phase.start))
+        +", \"thread\": "+jsonString(phase.thread)
+        +"}"
+        );
+    }
+    out.write("\n  ]\n}\n");
+  }
+  
+  /**
+   * Milliseconds between the start of the JVM process and the launcher
+   *   origin, if the platform reports the process start time. The
+   *   resolution of the process start time is platform dependent.
+   */
+  private static Long processStartOffset()
+  {
+    Optional<Instant> startInstant
+      =ProcessHandle.current().info().startInstant();
+    if (startInstant.isPresent())
+    { return originMillis-startInstant.get().toEpochMilli();
+    }
+    return null;
+  }
+  
+  /**
+   * The resident set size of this process in kilobytes, read from 
+   *   /proc/self/status, or null if not available on this platform
+   */
+  private static Long residentSetKb()
+  {
+    File status=new File("/proc/self/status");
+    if (!status.canRead())
+    { return null;
+    }
+    
+    try
+    {
+      for (String line:Files.readAllLines(status.toPath(),StandardCharsets.UTF_8))
+      { 
+        if (line.startsWith("VmRSS:"))
+        { 
+          // eg. "VmRSS:     51236 kB"
+          String value=line.substring(6).trim();
+          int space=value.indexOf(' ');
+          return Long.parseLong(space>0?value.substring(0,space):value);
+        }
+      }
+    }
+    catch (IOException | NumberFormatException x)
+    { 
+    }
+    return null;
+  }
+  
+  private static double millis(long nanos)
+  { return nanos/1000000.0;
+  }
+  
+  private static String jsonString(String value)
+  {
+    StringBuilder buf=new StringBuilder(value.length()+2);
+    buf.append('"');
+    for (int i=0;i<value.length();i++)
+    {
+      char c=value.charAt(i);
+      if (c=='"' || c=='\\')
+      { buf.append('\\').append(c);
+      }
+      else if (c<0x20)
+      { buf.append(String.format("\\u%04x",(int) c));
+      }
+      else
+      { buf.append(c);
+      }
+    }
+    buf.append('"');
+    return buf.toString();
+  }
+  
+  private StartupTimeline()
+  { }
+  
+  private static class Phase
+  {
+    final String name;
+    final long start;
+    final long end;
+    final String thread;
+    
+    Phase(String name,long start,long end,String thread)
+    {
+      this.name=name;
+      this.start=start;
+      this.end=end;
+      this.thread=thread;
+    }
+  }
+}
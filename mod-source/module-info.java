@@ -5,4 +5,5 @@ module spiralcraft
   requires java.sql;
   requires java.desktop;
   requires java.naming;
+  requires static jdk.jfr;
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ package spiralcraft.launcher;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Method;
 import java.lang.reflect.InvocationTargetException;
@@ -28,6 +29,7 @@ import spiralcraft.common.declare.Declarable;
 import spiralcraft.common.declare.DeclarationInfo;
 import spiralcraft.exec.ExecutionContext;
 import spiralcraft.log.ClassLog;
+import spiralcraft.main.StartupTimeline;
 import spiralcraft.util.ArrayUtil;
 import spiralcraft.util.URIUtil;
 import spiralcraft.util.string.StringUtil;
@@ -95,6 +97,8 @@ public class ApplicationEnvironment
   private boolean debug;
   private Resource[] _additionalClasspath;
   private boolean contextRoot;
+  private boolean asyncOutput;
+  private int asyncOutputCapacity=AsyncOutputStream.DEFAULT_CAPACITY;
   
   // Stream redirects- will be closed when done
   protected URI out;
@@ -105,6 +109,8 @@ public class ApplicationEnvironment
   protected PrintStream outStream;
   protected PrintStream errStream;
   protected URI focusURI;
+  
+  private volatile ResourceUsage resourceUsage=ResourceUsage.NONE;
 
   /**
    * The ApplicationManager provides access to the entire installed
@@ -117,9 +123,68 @@ public class ApplicationEnvironment
     _classLoader.setDebug(debug);
   }
   
-  void dispose()
+  /**
+   * Release the classpath of this environment. Called after the 
+   *   environment has run, or by a tool which resolved it without
+   *   running it.
+   */
+  public void dispose()
   { _classLoader.shutdown();
   }
+  
+  /**
+   * <p>Add the modules this environment uses to its ClassLoader- the
+   *   configured modules and their dependencies, or all the modules in 
+   *   the catalog if none are configured- and return the ClassLoader.
+   * </p>
+   * 
+   * <p>This is the first step of exec(), and may be called separately by
+   *   tools which prepare an environment without running it.
+   * </p>
+   */
+  public LibraryClassLoader resolveClasspath()
+    throws IOException
+  {
+    long start=StartupTimeline.start();
+    if (_modules!=null)
+    {
+      for (int i=0;i<_modules.length;i++)
+      { _classLoader.addModule(_modules[i]);
+      }
+      StartupTimeline.end("launcher.addModule",start);
+    }
+    else
+    { 
+      _classLoader.addAllModules();
+      StartupTimeline.end("launcher.addAllModules",start);
+      
+      // This is unreliable- we might need something we can't reach
+      //   from the main class.
+      
+      // _classLoader.resolveLibrariesForClass(_mainClass);
+    }
+    return _classLoader;
+  }
+  
+  void setResourceUsage(ResourceUsage resourceUsage)
+  { this.resourceUsage=resourceUsage;
+  }
+  
+  /**
+   * <p>The CPU time and heap allocation consumed while this environment
+   *   was executing by the launching thread and by the threads created
+   *   for it through the LauncherThreadGroup's ThreadFactory interface, 
+   *   such as executor pools. Threads still alive when the environment
+   *   completes are measured up to that point.
+   * </p>
+   * 
+   * <p>Threads the application constructs directly are not included. They
+   *   are counted in the LauncherThreadGroup total while they are alive.
+   * </p>
+   */
+  public ResourceUsage getResourceUsage()
+  { return resourceUsage;
+  }
 
   public void setDebug(boolean debug)
   { this.debug=debug;
@@ -227,6 +292,24 @@ public class ApplicationEnvironment
   { this.focusURI=contextURI;
   }
   
+  /**
+   * <p>Write the "out" and "err" redirects through an AsyncOutputStream 
+   *   instead of an autoflushing PrintStream, so writers do not wait on the
+   *   target for each line. Output is flushed when the application exits.
+   * </p>
+   */
+  public void setAsyncOutput(boolean asyncOutput)
+  { this.asyncOutput=asyncOutput;
+  }
+  
+  /**
+   * The maximum number of bytes buffered for each asynchronous output
+   *   stream before writers drain the buffer themselves.
+   */
+  public void setAsyncOutputCapacity(int asyncOutputCapacity)
+  { this.asyncOutputCapacity=asyncOutputCapacity;
+  }
+  
   /**
    * Use the location of the .env file as the context root / working dir for the app
    * @param contextRoot
@@ -251,21 +334,7 @@ public class ApplicationEnvironment
 
     try  
     {
-      if (_modules!=null)
-      {
-        for (int i=0;i<_modules.length;i++)
-        { _classLoader.addModule(_modules[i]);
-        }
-      }
-      else
-      { 
-        _classLoader.addAllModules();
-        
-        // This is unreliable- we might need something we can't reach
-        //   from the main class.
-        
-        // _classLoader.resolveLibrariesForClass(_mainClass);
-      }
+      resolveClasspath();
   
       ClassLoader classLoader=_classLoader;
 
@@ -281,7 +350,9 @@ public class ApplicationEnvironment
       }
       
       
+      long start=StartupTimeline.start();
       Class<?> clazz=classLoader.loadClass(_mainClass);
+      StartupTimeline.end("launcher.loadClass("+_mainClass+")",start);
       
       
       ClassLoader oldLoader=Thread.currentThread().getContextClassLoader();
@@ -324,6 +395,8 @@ public class ApplicationEnvironment
                 );
             }
             // log.fine("Classloader is "+classLoader);
+            StartupTimeline.mark("entry("+_mainClass+"."+_mainMethodName+")");
+            StartupTimeline.report();
             mainMethod.invoke(null,new Object[] {contextMap,_mainArguments});
           }
           finally
@@ -338,6 +411,8 @@ public class ApplicationEnvironment
           Method mainMethod
           =clazz.getMethod(_mainMethodName,new Class<?>[] {String[].class});
 
+          StartupTimeline.mark("entry("+_mainClass+"."+_mainMethodName+")");
+          StartupTimeline.report();
           mainMethod.invoke(null,new Object[] {_mainArguments});
           
         }
@@ -395,14 +470,28 @@ public class ApplicationEnvironment
         =resolver.resolve(in).getInputStream();
     }            
     if (out!=null)
-    { 
-      outStream
-        =new PrintStream(resolver.resolve(out).getOutputStream(),true);
+    { outStream=createPrintStream(resolver.resolve(out).getOutputStream());
     }
     if (err!=null)
+    { errStream=createPrintStream(resolver.resolve(err).getOutputStream());
+    }
+  }
+  
+  private PrintStream createPrintStream(OutputStream target)
+  {
+    if (asyncOutput)
     { 
-      errStream
-        =new PrintStream(resolver.resolve(err).getOutputStream(),true);
+      return new PrintStream
+        (new AsyncOutputStream
+          (target
+          ,asyncOutputCapacity
+          ,AsyncOutputStream.OverflowPolicy.CALLER_DRAINS
+          )
+        ,false
+        );
+    }
+    else
+    { return new PrintStream(target,true);
     }
   }
   
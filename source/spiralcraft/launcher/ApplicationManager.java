@@ -28,11 +28,19 @@ import spiralcraft.common.ContextualException;
 import spiralcraft.data.persist.AbstractXmlObject;
 import spiralcraft.cli.BeanArguments;
 import spiralcraft.exec.ExecutionContext;
+import spiralcraft.main.Spiralcraft;
+import spiralcraft.main.StartupTimeline;
 
 import java.io.File;
 import java.io.IOException;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
 //import java.util.logging.Logger;
 
 /**
@@ -72,7 +80,8 @@ public class ApplicationManager
 //    =ClassLogger.getInstance(ApplicationManager.class);
   
 
-  private URI[] searchPath;
+  private final HashMap<String,URI> environmentCache
+    =new HashMap<String,URI>();
     
   private final File _codebase;
       
@@ -92,6 +101,16 @@ public class ApplicationManager
 
   private boolean debug=false;
   
+  private final LongAdder launches=new LongAdder();
+  private final LongAdder activeLaunches=new LongAdder();
+  private final LongAdder failedLaunches=new LongAdder();
+  private final LongAdder environmentCacheHits=new LongAdder();
+  private final LongAdder environmentCacheMisses=new LongAdder();
+  private final TimingHistogram launchTime=new TimingHistogram();
+  private final ObjectName mbeanName;
+  
+  private ResourceUsage resourceUsage=ResourceUsage.NONE;
+  
 
   public ApplicationManager(String userId,File codebase)
   { 
@@ -102,10 +121,15 @@ public class ApplicationManager
     if (library!=null)
     { Library.set(library);
     }
+    long start=StartupTimeline.start();
     _catalog=
       new LibraryCatalog
         (new File(_codebase,"lib")
         );
+    StartupTimeline.end("launcher.LibraryCatalog",start);
+    mbeanName
+      =LauncherMBeans.register
+        (new Management(),"type=ApplicationManager,id="+LauncherMBeans.nextId());
     
   }
 
@@ -146,12 +170,32 @@ public class ApplicationManager
   }
   
   public void shutdown()
-  { _catalog.close();
+  { 
+    LauncherMBeans.unregister(mbeanName);
+    _catalog.close();
   }
   
   public LibraryCatalog getLibraryCatalog()
   { return _catalog;
   }
+  
+  public File getCodebase()
+  { return _codebase;
+  }
+  
+  /**
+   * The total CPU time and heap allocation consumed by the environments
+   *   run by this ApplicationManager, as reported by 
+   *   ApplicationEnvironment.getResourceUsage(). Nested launches are
+   *   included in the launch that runs them.
+   */
+  public synchronized ResourceUsage getResourceUsage()
+  { return resourceUsage;
+  }
+  
+  private synchronized void addResourceUsage(ResourceUsage usage)
+  { resourceUsage=resourceUsage.plus(usage);
+  }
 
   public void exec(String[] args)
     throws LaunchException
@@ -174,30 +218,42 @@ public class ApplicationManager
       
       
     URI applicationURI=null;
+    List<URI> searchPath=new ArrayList<URI>();
     if (commandPos<args.length)
     {
-      applicationURI=findEnvironment(args[commandPos],".env.xml");
+      long start=StartupTimeline.start();
+      EnvironmentEvent event=new EnvironmentEvent();
+      event.begin();
+      applicationURI=findEnvironment(args[commandPos],".env.xml",searchPath);
+      event.end();
+      if (event.shouldCommit())
+      {
+        event.phase="find";
+        event.environment=args[commandPos];
+        event.commit();
+      }
+      StartupTimeline.end("launcher.findEnvironment("+args[commandPos]+")",start);
       if (applicationURI==null)
       { 
         // Show environments in-scope
         throw new IllegalArgumentException
           ("Unknown application environment '"+args[commandPos]+"', searched:\r\n  "
-          +ArrayUtil.format(searchPath,"\r\n  ,","[","]")
+          +ArrayUtil.format(searchPath.toArray(),"\r\n  ,","[","]")
           );
       }
       args=ArrayUtil.truncateBefore(args,commandPos+1);
     }
     else
     { 
-      applicationURI=findDefaultEnvironment();
+      applicationURI=findDefaultEnvironment(searchPath);
       envArgs=args;
       args=new String[0];
       if (applicationURI==null)
       { 
-        if (searchPath.length>0)
+        if (searchPath.size()>0)
         {
           System.err.println("Could not find default application environment "
-            +" "+ArrayUtil.format(searchPath,"\r\n ,","[","]")
+            +" "+ArrayUtil.format(searchPath.toArray(),"\r\n ,","[","]")
             );
           System.err.println(" ");
         }
@@ -209,11 +265,54 @@ public class ApplicationManager
     launch(applicationURI,envArgs,args);
   }
 
+  /**
+   * <p>Find and activate the named environment without running it, for
+   *   tools which inspect or prepare an environment. The caller must 
+   *   dispose() the environment when done.
+   * </p>
+   */
+  public ApplicationEnvironment resolveEnvironment(String name)
+    throws LaunchException
+  {
+    List<URI> searchPath=new ArrayList<URI>();
+    URI applicationURI=findEnvironment(name,".env.xml",searchPath);
+    if (applicationURI==null)
+    { 
+      throw new IllegalArgumentException
+        ("Unknown application environment '"+name+"', searched:\r\n  "
+        +ArrayUtil.format(searchPath.toArray(),"\r\n  ,","[","]")
+        );
+    }
+    
+    try
+    {
+      AbstractXmlObject<ApplicationEnvironment,?> environmentRef
+        =AbstractXmlObject.<ApplicationEnvironment>activate
+          (null
+          ,applicationURI
+          ,null
+          );
+      ApplicationEnvironment environment=environmentRef.get();
+      environment.resolve(this);
+      return environment;
+    }
+    catch (ContextualException x)
+    { throw new LaunchException("Error binding "+applicationURI,x);
+    }
+  }
+  
   private void launch(URI applicationURI,String[] envArgs,String[] args)
     throws LaunchException
   {
+    launches.increment();
+    activeLaunches.increment();
+    long launchStart=System.nanoTime();
+    boolean succeeded=false;
     try
     {
+      long start=StartupTimeline.start();
+      EnvironmentEvent activateEvent=new EnvironmentEvent();
+      activateEvent.begin();
       AbstractXmlObject<ApplicationEnvironment,?> environmentRef
       =AbstractXmlObject.<ApplicationEnvironment>activate
       (null
@@ -225,7 +324,20 @@ public class ApplicationManager
       ApplicationEnvironment environment=environmentRef.get();
       new BeanArguments<ApplicationEnvironment>(environment).process(envArgs);
       environment.resolve(this);
+      activateEvent.end();
+      if (activateEvent.shouldCommit())
+      {
+        activateEvent.phase="activate";
+        activateEvent.environment=applicationURI.toString();
+        activateEvent.commit();
+      }
+      StartupTimeline.end("launcher.activate("+applicationURI+")",start);
       
+      ResourceAccount account=new ResourceAccount();
+      ResourceAccount outerAccount=account.enter();
+      ResourceUsage startUsage=ResourceUsage.currentThread();
+      EnvironmentEvent execEvent=new EnvironmentEvent();
+      execEvent.begin();
       try
       { environment.exec(args);
       }
@@ -237,19 +349,48 @@ public class ApplicationManager
           );
       }
       finally
-      { environment.dispose();
+      { 
+        execEvent.end();
+        if (execEvent.shouldCommit())
+        {
+          execEvent.phase="exec";
+          execEvent.environment=applicationURI.toString();
+          execEvent.commit();
+        }
+        ResourceAccount.restore(outerAccount);
+        ResourceUsage usage
+          =ResourceUsage.currentThread().since(startUsage)
+            .plus(account.getUsage());
+        environment.setResourceUsage(usage);
+        if (outerAccount==null)
+        { 
+          // A nested launch is already included in the enclosing one
+          addResourceUsage(usage);
+        }
+        if (Spiralcraft.RESOURCE_USAGE)
+        { Spiralcraft.err.println("Resource usage: "+applicationURI+": "+usage);
+        }
+        environment.dispose();
       }
+      succeeded=true;
     }
     catch (ContextualException x)
     { throw new LaunchException("Error binding "+applicationURI,x);
     }
+    finally
+    {
+      activeLaunches.decrement();
+      launchTime.recordSince(launchStart);
+      if (!succeeded)
+      { failedLaunches.increment();
+      }
+    }
     
   }
   
   
-  private URI findDefaultEnvironment()
+  private URI findDefaultEnvironment(List<URI> searchPath)
   {
-    searchPath=new URI[0];
     String defaultEnvironment
       =System.getProperty("spiralcraft.launcher.default.env");
     
@@ -278,7 +419,7 @@ public class ApplicationManager
     if (isEnvironment(searchURI))
     { return searchURI;
     }
-    searchPath=ArrayUtil.append(searchPath,searchURI);
+    searchPath.add(searchURI);
     return null;
   }
     
@@ -292,59 +433,103 @@ public class ApplicationManager
    *   5. codebase environment path 
    *   6. user home directory/.spiralcraft/env/* 
    *
+   * <p>Successful lookups are cached for the life of the ApplicationManager,
+   *   so repeated invocations of the same environment (eg. in batch mode)
+   *   do not re-probe the search path.
+   * </p>
    */
-  private URI findEnvironment(String name,String suffix)
+  private URI findEnvironment(String name,String suffix,List<URI> searchPath)
+  {
+    String key=name+suffix;
+    synchronized (environmentCache)
+    { 
+      URI cached=environmentCache.get(key);
+      if (cached!=null)
+      { 
+        environmentCacheHits.increment();
+        return cached;
+      }
+    }
+    environmentCacheMisses.increment();
+    
+    URI found=searchEnvironment(name,suffix,searchPath);
+    if (found!=null)
+    {
+      synchronized (environmentCache)
+      { environmentCache.put(key,found);
+      }
+    }
+    return found;
+  }
+  
+  private URI searchEnvironment(String name,String suffix,List<URI> searchPath)
   {
     URI nameURI=URI.create(name+suffix);
     URI searchURI=null;
     
     
     if (nameURI.isAbsolute() && isEnvironment(nameURI))
-    { 
-      searchPath=new URI[] {nameURI};
-      return nameURI;
-    }
-    else
-    { searchPath=new URI[] {};
+    { return nameURI;
     }
 
     searchURI=new File(System.getProperty("user.dir")).toURI().resolve(nameURI);
     if (isEnvironment(searchURI))
     { return searchURI;
     }
-    searchPath=ArrayUtil.append(searchPath,searchURI);
+    searchPath.add(searchURI);
 
     searchURI=URI.create
       ("class:/spiralcraft/launcher/builtins/").resolve(nameURI);
     if (isEnvironment(searchURI))
     { return searchURI;
     }
-    searchPath=ArrayUtil.append(searchPath,searchURI);
+    searchPath.add(searchURI);
 
     searchURI=URI.create
       ("sclib:/META-INF/spiralcraft.env/").resolve(nameURI);
-    if (isEnvironment(searchURI))
+    if (isCodebaseEnvironment(name,suffix,searchURI))
     { return searchURI;
     }
-    searchPath=ArrayUtil.append(searchPath,searchURI);
+    searchPath.add(searchURI);
     
     searchURI=_codebaseEnvironmentURI.resolve(nameURI);
     if (isEnvironment(searchURI))
     { return searchURI;
     }
-    searchPath=ArrayUtil.append(searchPath,searchURI);
+    searchPath.add(searchURI);
     
 
     searchURI=_userHomeEnvironmentURI.resolve(nameURI);
     if (isEnvironment(searchURI))
     { return searchURI;
     }
-    searchPath=ArrayUtil.append(searchPath,searchURI);
+    searchPath.add(searchURI);
 
 
     return null;
   }
 
+  /**
+   * Whether a library in the codebase declares the environment. An 
+   *   indexed catalog answers from its environment table without 
+   *   resolving the resource.
+   */
+  private boolean isCodebaseEnvironment(String name,String suffix,URI uri)
+  {
+    if (suffix.equals(".env.xml") && name.indexOf('/')<0)
+    {
+      List<Module> declaring=_catalog.findEnvironmentModules(name);
+      if (declaring!=null)
+      { 
+        if (debug)
+        { System.err.println("Searching catalog index for "+uri);
+        }
+        return !declaring.isEmpty();
+      }
+    }
+    return isEnvironment(uri);
+  }
+  
   private boolean isEnvironment(URI uri)
   {
     if (debug)
@@ -373,6 +558,66 @@ public class ApplicationManager
     }
     return false;
   }
-}
+  
+  /**
+   * Exposes launch statistics through JMX
+   */
+  private class Management
+    implements ApplicationManagerMXBean
+  {
+    @Override
+    public String getCodebase()
+    { return _codebase.getAbsolutePath();
+    }
+
+    @Override
+    public long getLaunchCount()
+    { return launches.sum();
+    }
+
+    @Override
+    public long getFailedLaunchCount()
+    { return failedLaunches.sum();
+    }
+
+    @Override
+    public long getActiveLaunchCount()
+    { return activeLaunches.sum();
+    }
 
+    @Override
+    public long getEnvironmentCacheHits()
+    { return environmentCacheHits.sum();
+    }
+
+    @Override
+    public long getEnvironmentCacheMisses()
+    { return environmentCacheMisses.sum();
+    }
 
+    @Override
+    public long getLaunchCpuTimeNanos()
+    { return getResourceUsage().getCpuTime();
+    }
+
+    @Override
+    public long getLaunchAllocatedBytes()
+    { return getResourceUsage().getAllocatedBytes();
+    }
+
+    @Override
+    public long[] getLaunchTimeHistogram()
+    { return launchTime.getCounts();
+    }
+
+    @Override
+    public double getMeanLaunchTimeMicros()
+    { return launchTime.getMeanMicros();
+    }
+
+    @Override
+    public String[] getTimingBuckets()
+    { return TimingHistogram.getBucketLabels();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+/**
+ * <p>Management interface for an ApplicationManager
+ * </p>
+ */
+public interface ApplicationManagerMXBean
+{
+  String getCodebase();
+  
+  /**
+   * Environments launched, including those that failed
+   */
+  long getLaunchCount();
+  
+  long getFailedLaunchCount();
+  
+  /**
+   * Environments currently executing
+   */
+  long getActiveLaunchCount();
+  
+  long getEnvironmentCacheHits();
+  
+  long getEnvironmentCacheMisses();
+  
+  /**
+   * Total CPU time of the launching threads, or -1 if unavailable
+   */
+  long getLaunchCpuTimeNanos();
+  
+  /**
+   * Total heap allocation of the launching threads, or -1 if unavailable
+   */
+  long getLaunchAllocatedBytes();
+  
+  /**
+   * Counts of launch durations, bucketed per getTimingBuckets()
+   */
+  long[] getLaunchTimeHistogram();
+  
+  double getMeanLaunchTimeMicros();
+  
+  String[] getTimingBuckets();
+}
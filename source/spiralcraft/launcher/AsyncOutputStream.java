@@ -0,0 +1,372 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>An OutputStream that decouples writers from a slow target, such as
+ *   a console or an unbuffered file.
+ * </p>
+ * 
+ * <p>Each write() reserves space in a ring buffer by advancing a byte 
+ *   counter with compareAndSet, copies the data in and returns, without
+ *   allocating. A daemon thread shared by all AsyncOutputStreams drains 
+ *   the buffer in batches, writing each batch to the target and flushing
+ *   it. Writes from any one thread are delivered in order.
+ * </p>
+ * 
+ * <p>Memory is bounded by the capacity, which is allocated on the first 
+ *   write. A write larger than the capacity is split. When there is no 
+ *   room for a write, the OverflowPolicy determines whether the writer
+ *   drains the buffer itself (CALLER_DRAINS, the default, which never 
+ *   loses data) or the write is discarded and counted (DISCARD).
+ * </p>
+ * 
+ * <p>flush() writes all buffered data to the target and flushes it before
+ *   returning. close() flushes and closes the target. release() flushes
+ *   and leaves the target open. Either one stops further writes.
+ * </p>
+ */
+public class AsyncOutputStream
+  extends OutputStream
+{
+  public enum OverflowPolicy
+  { CALLER_DRAINS
+  , DISCARD
+  }
+  
+  public static final int DEFAULT_CAPACITY=256*1024;
+  private static final int BATCH_SIZE=64*1024;
+  
+  private final OutputStream target;
+  private final int capacity;
+  private final OverflowPolicy overflowPolicy;
+  
+  private volatile byte[] ring;
+  
+  // Positions in the stream of bytes written, which index the ring modulo
+  //   the capacity. Writers reserve [tail) and publish [published) in 
+  //   reservation order. The drain writes up to published and advances
+  //   head, which frees the space.
+  private final AtomicLong tail=new AtomicLong();
+  private final AtomicLong published=new AtomicLong();
+  private volatile long head;
+  
+  private final AtomicLong discardedBytes=new AtomicLong();
+  private final AtomicBoolean scheduled=new AtomicBoolean();
+  private final ReentrantLock drainLock=new ReentrantLock();
+  
+  private volatile boolean closed;
+  private volatile IOException failure;
+  
+  public AsyncOutputStream(OutputStream target)
+  { this(target,DEFAULT_CAPACITY,OverflowPolicy.CALLER_DRAINS);
+  }
+  
+  public AsyncOutputStream
+    (OutputStream target,int capacity,OverflowPolicy overflowPolicy)
+  {
+    if (capacity<1)
+    { throw new IllegalArgumentException("Capacity must be at least 1");
+    }
+    this.target=target;
+    this.capacity=capacity;
+    this.overflowPolicy=overflowPolicy;
+  }
+  
+  /**
+   * The number of bytes dropped under the DISCARD overflow policy
+   */
+  public long getDiscardedBytes()
+  { return discardedBytes.get();
+  }
+  
+  @Override
+  public void write(int b)
+    throws IOException
+  { 
+    assertOpen();
+    long start=reserve(1);
+    if (start<0)
+    { return;
+    }
+    ring()[(int) (start%capacity)]=(byte) b;
+    publish(start,1);
+  }
+  
+  @Override
+  public void write(byte[] data,int off,int len)
+    throws IOException
+  {
+    Objects.checkFromIndexSize(off,len,data.length);
+    assertOpen();
+    while (len>0)
+    {
+      int count=Math.min(len,capacity);
+      long start=reserve(count);
+      if (start>=0)
+      {
+        copyIn(data,off,count,start);
+        publish(start,count);
+      }
+      off+=count;
+      len-=count;
+    }
+  }
+  
+  /**
+   * Reserve space for count bytes, which must not exceed the capacity,
+   *   returning the stream position to copy them to, or -1 if they were
+   *   discarded.
+   */
+  private long reserve(int count)
+    throws IOException
+  {
+    while (true)
+    {
+      long start=tail.get();
+      if (start+count-head<=capacity)
+      { 
+        if (tail.compareAndSet(start,start+count))
+        { return start;
+        }
+      }
+      else if (overflowPolicy==OverflowPolicy.DISCARD)
+      { 
+        discardedBytes.addAndGet(count);
+        return -1;
+      }
+      else
+      { 
+        // Reserved space is freed once the writers holding it publish
+        drain();
+        Thread.yield();
+      }
+    }
+  }
+  
+  private void copyIn(byte[] data,int off,int count,long start)
+  {
+    byte[] ring=ring();
+    int index=(int) (start%capacity);
+    int first=Math.min(count,capacity-index);
+    System.arraycopy(data,off,ring,index,first);
+    if (first<count)
+    { System.arraycopy(data,off+first,ring,0,count-first);
+    }
+  }
+  
+  /**
+   * Publish reserved data to the drain once all data reserved before it
+   *   has been published
+   */
+  private void publish(long start,int count)
+  {
+    while (published.get()!=start)
+    { Thread.onSpinWait();
+    }
+    published.set(start+count);
+    if (scheduled.compareAndSet(false,true))
+    { Drainer.schedule(this);
+    }
+  }
+  
+  private byte[] ring()
+  {
+    byte[] ring=this.ring;
+    if (ring==null)
+    {
+      synchronized (this)
+      {
+        ring=this.ring;
+        if (ring==null)
+        { 
+          ring=new byte[capacity];
+          this.ring=ring;
+        }
+      }
+    }
+    return ring;
+  }
+  
+  /**
+   * Write all buffered data to the target and flush the target
+   */
+  @Override
+  public void flush()
+    throws IOException
+  { 
+    assertOpen();
+    drain();
+  }
+  
+  @Override
+  public void close()
+    throws IOException
+  { 
+    if (closed)
+    { return;
+    }
+    try
+    { release();
+    }
+    finally
+    { target.close();
+    }
+  }
+  
+  /**
+   * Write all buffered data to the target and stop accepting writes, 
+   *   leaving the target open.
+   */
+  public void release()
+    throws IOException
+  {
+    if (closed)
+    { return;
+    }
+    try
+    { drain();
+    }
+    finally
+    { closed=true;
+    }
+  }
+  
+  private void assertOpen()
+    throws IOException
+  {
+    if (closed)
+    { throw new IOException("Stream closed");
+    }
+    IOException failure=this.failure;
+    if (failure!=null)
+    { throw new IOException("Asynchronous write failed",failure);
+    }
+  }
+  
+  /**
+   * Called on the drain thread
+   */
+  private void backgroundDrain()
+  {
+    scheduled.set(false);
+    if (closed || failure!=null)
+    { return;
+    }
+    try
+    { drain();
+    }
+    catch (IOException x)
+    { failure=x;
+    }
+  }
+  
+  /**
+   * Move everything published so far to the target in batch-sized writes,
+   *   freeing the space as each batch is written, and flush the target.
+   */
+  private void drain()
+    throws IOException
+  {
+    drainLock.lock();
+    try
+    {
+      long end=published.get();
+      long position=head;
+      if (position==end)
+      { return;
+      }
+      byte[] ring=ring();
+      while (position<end)
+      {
+        int index=(int) (position%capacity);
+        int count
+          =(int) Math.min(Math.min(end-position,capacity-index),BATCH_SIZE);
+        target.write(ring,index,count);
+        position+=count;
+        head=position;
+      }
+      target.flush();
+    }
+    finally
+    { drainLock.unlock();
+    }
+  }
+  
+  /**
+   * The daemon thread which drains all AsyncOutputStreams with published 
+   *   data, so creating a stream does not start a thread. It runs in the
+   *   root ThreadGroup so it is never a member of a launcher group which
+   *   is joined.
+   */
+  private static class Drainer
+  {
+    private static final ConcurrentLinkedQueue<AsyncOutputStream> ready
+      =new ConcurrentLinkedQueue<AsyncOutputStream>();
+    private static final Thread thread;
+    
+    static
+    {
+      ThreadGroup group=Thread.currentThread().getThreadGroup();
+      while (group.getParent()!=null)
+      { group=group.getParent();
+      }
+      thread
+        =new Thread
+          (group
+          ,new Runnable()
+          {
+            @Override
+            public void run()
+            { drainLoop();
+            }
+          }
+          ,"async-output"
+          );
+      thread.setDaemon(true);
+      thread.setContextClassLoader(null);
+      thread.start();
+    }
+    
+    static void schedule(AsyncOutputStream stream)
+    { 
+      ready.offer(stream);
+      LockSupport.unpark(thread);
+    }
+    
+    private static void drainLoop()
+    {
+      while (true)
+      {
+        AsyncOutputStream stream=ready.poll();
+        if (stream==null)
+        { LockSupport.park(Drainer.class);
+        }
+        else
+        { stream.backgroundDrain();
+        }
+      }
+    }
+  }
+}
@@ -17,6 +17,8 @@ package spiralcraft.launcher;
 import java.io.IOException;
 import java.io.PrintStream;
 
+import spiralcraft.main.StartupTimeline;
+
 
 /**
  * <p>Runs a routine that outputs information to the standard output
@@ -36,6 +38,8 @@ public abstract class BuiltInReportEnvironment
     try
     {
       pushExecutionContext();
+      StartupTimeline.mark("entry("+getClass().getName()+".report)");
+      StartupTimeline.report();
       report(outStream,args);
       outStream.flush();
       popExecutionContext();
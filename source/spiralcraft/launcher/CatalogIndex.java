@@ -0,0 +1,756 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>A precomputed, versioned index of the libraries in a LibraryCatalog,
+ *   written once when a codebase is deployed (see the "catalog" built-in)
+ *   so that each launch can restore the catalog from a single file rather
+ *   than opening and scanning every jar.
+ * </p>
+ * 
+ * <p>For each library, the index records the file name, length and 
+ *   modification time, the version properties, the manifest Class-Path 
+ *   and its resolved dependency closure, the resource table, the packages
+ *   containing classes, the META-INF/services registrations and the
+ *   environments declared in META-INF/spiralcraft.env. A catalog restored
+ *   from the index uses the package table to find the libraries which may
+ *   contain a class, and the environment table to find codebase 
+ *   environments without resolving them.
+ * </p>
+ * 
+ * <p>The index is only used when it describes exactly the libraries 
+ *   present in the directory, as determined by the file length and 
+ *   modification time. Otherwise the LibraryCatalog discovers the 
+ *   libraries as usual.
+ * </p>
+ */
+public class CatalogIndex
+{
+  /**
+   * The name of the index file in the library directory
+   */
+  public static final String FILE_NAME="spiralcraft-catalog.idx";
+  
+  /**
+   * The index format version, incremented on any change to the format
+   */
+  public static final int FORMAT_VERSION=1;
+  
+  private static final int MAGIC=0x53434958;
+  
+  private static final String SERVICES_PATH="META-INF/services/";
+  private static final String ENVIRONMENT_PATH="META-INF/spiralcraft.env/";
+  private static final String ENVIRONMENT_SUFFIX=".env.xml";
+
+  private static final byte KIND_JAR=0;
+  private static final byte KIND_NATIVE=1;
+  private static final byte KIND_FILE=2;
+  
+  private static final byte FLAG_DIRECTORY=1;
+  private static final byte FLAG_STORED=2;
+  
+  private final List<ModuleEntry> modules;
+  
+  private CatalogIndex(List<ModuleEntry> modules)
+  { this.modules=Collections.unmodifiableList(modules);
+  }
+  
+  /**
+   * <p>Build an index of the libraries in a catalog. Library manifests and
+   *   service registrations are read from the libraries.
+   * </p>
+   */
+  public static CatalogIndex build(LibraryCatalog catalog)
+    throws IOException
+  {
+    List<Module> libraries=new ArrayList<Module>(catalog.listModules());
+    IdentityHashMap<Module,ModuleEntry> entries
+      =new IdentityHashMap<Module,ModuleEntry>();
+    List<ModuleEntry> modules=new ArrayList<ModuleEntry>(libraries.size());
+    for (Module library:libraries)
+    { 
+      ModuleEntry entry=buildEntry(library);
+      entries.put(library,entry);
+      modules.add(entry);
+    }
+    
+    // Resolve the dependency closures once every library has an entry
+    for (Module library:libraries)
+    { 
+      ModuleEntry entry=entries.get(library);
+      LinkedHashSet<ModuleEntry> closure=new LinkedHashSet<ModuleEntry>();
+      LinkedList<Module> pending=new LinkedList<Module>();
+      pending.add(library);
+      while (!pending.isEmpty())
+      {
+        String[] dependencies=entries.get(pending.removeFirst()).dependencies;
+        if (dependencies==null)
+        { continue;
+        }
+        for (String dependency:dependencies)
+        { 
+          Module depends=catalog.findModule(dependency);
+          ModuleEntry dependsEntry=depends!=null?entries.get(depends):null;
+          if (dependsEntry!=null 
+              && dependsEntry!=entry 
+              && closure.add(dependsEntry)
+              )
+          { pending.add(depends);
+          }
+        }
+      }
+      entry.dependencyClosure
+        =Collections.unmodifiableList(new ArrayList<ModuleEntry>(closure));
+    }
+    return new CatalogIndex(modules);
+  }
+  
+  private static ModuleEntry buildEntry(Module library)
+    throws IOException
+  {
+    File file=new File(library.getPath());
+    ModuleEntry entry=new ModuleEntry();
+    entry.fileName=file.getName();
+    entry.length=file.length();
+    entry.lastModified=library.getLastModified();
+    entry.kind
+      =library instanceof JarModule?KIND_JAR
+      :library instanceof NativeLibrary?KIND_NATIVE
+      :KIND_FILE
+      ;
+    
+    entry.versionProperties=library.readVersionProperties();
+    entry.dependencies
+      =library instanceof JarModule
+      ?((JarModule) library).readLibraryDependencies()
+      :library.getLibraryDependencies()
+      ;
+    
+    List<String> names
+      =new ArrayList<String>(new TreeSet<String>(library.resources.keySet()));
+    int count=0;
+    entry.resourceNames=new String[names.size()];
+    entry.resourceFlags=new byte[names.size()];
+    entry.resourceSizes=new long[names.size()];
+    entry.resourceCrcs=new long[names.size()];
+    entry.resourceTimes=new long[names.size()];
+    
+    Set<String> packages=new LinkedHashSet<String>();
+    Map<String,List<String>> services=new LinkedHashMap<String,List<String>>();
+    List<String> environments=new ArrayList<String>();
+    for (String name:names)
+    {
+      Resource resource=library.resources.get(name);
+      if (!(resource instanceof JarResource))
+      { continue;
+      }
+      JarResource jarResource=(JarResource) resource;
+      entry.resourceNames[count]=name;
+      entry.resourceFlags[count]
+        =(byte) 
+          ((jarResource.isDirectory()?FLAG_DIRECTORY:0)
+          |(jarResource.isStored()?FLAG_STORED:0)
+          );
+      entry.resourceSizes[count]=jarResource.getSize();
+      entry.resourceCrcs[count]=jarResource.getCrc();
+      entry.resourceTimes[count]=jarResource.getTime();
+      count++;
+      
+      if (jarResource.isDirectory())
+      { continue;
+      }
+      
+      int slash=name.lastIndexOf('/');
+      if (name.endsWith(".class") 
+          && slash>0
+          && !name.startsWith("META-INF/")
+          )
+      { packages.add(name.substring(0,slash).replace('/','.'));
+      }
+      else if (name.startsWith(SERVICES_PATH) 
+              && slash==SERVICES_PATH.length()-1
+              )
+      { 
+        services.put
+          (name.substring(slash+1)
+          ,Collections.unmodifiableList(readProviders(jarResource))
+          );
+      }
+      else if (name.startsWith(ENVIRONMENT_PATH)
+              && slash==ENVIRONMENT_PATH.length()-1
+              && name.endsWith(ENVIRONMENT_SUFFIX)
+              )
+      { 
+        environments.add
+          (name.substring(slash+1,name.length()-ENVIRONMENT_SUFFIX.length()));
+      }
+    }
+    if (count<names.size())
+    { entry.truncateResources(count);
+    }
+    entry.packages=Collections.unmodifiableList(new ArrayList<String>(packages));
+    entry.services=Collections.unmodifiableMap(services);
+    entry.environments=Collections.unmodifiableList(environments);
+    return entry;
+  }
+  
+  /**
+   * Read the provider class names from a service registration
+   */
+  private static List<String> readProviders(Resource resource)
+    throws IOException
+  {
+    List<String> providers=new ArrayList<String>();
+    byte[] data=resource.getData();
+    if (data==null)
+    { return providers;
+    }
+    BufferedReader reader
+      =new BufferedReader
+        (new InputStreamReader
+          (new ByteArrayInputStream(data),StandardCharsets.UTF_8)
+        );
+    String line;
+    while ((line=reader.readLine())!=null)
+    {
+      int comment=line.indexOf('#');
+      if (comment>=0)
+      { line=line.substring(0,comment);
+      }
+      line=line.trim();
+      if (line.length()>0 && !providers.contains(line))
+      { providers.add(line);
+      }
+    }
+    return providers;
+  }
+  
+  /**
+   * <p>Read an index file. 
+   * </p>
+   * 
+   * @throws IOException If the file cannot be read, is not an index, or 
+   *   was written in a different format version
+   */
+  public static CatalogIndex read(File file)
+    throws IOException
+  {
+    try (DataInputStream in
+          =new DataInputStream
+            (new BufferedInputStream(new FileInputStream(file),65536))
+        )
+    {
+      if (in.readInt()!=MAGIC)
+      { throw new IOException(file+" is not a catalog index");
+      }
+      int version=in.readInt();
+      if (version!=FORMAT_VERSION)
+      { 
+        throw new IOException
+          ("Catalog index format version "+version+" is not supported"
+          +" (expected "+FORMAT_VERSION+")"
+          );
+      }
+      
+      int moduleCount=in.readInt();
+      List<ModuleEntry> modules=new ArrayList<ModuleEntry>(moduleCount);
+      int[][] closures=new int[moduleCount][];
+      for (int i=0;i<moduleCount;i++)
+      {
+        ModuleEntry entry=new ModuleEntry();
+        entry.fileName=in.readUTF();
+        entry.kind=in.readByte();
+        entry.length=in.readLong();
+        entry.lastModified=in.readLong();
+        
+        int count=in.readInt();
+        if (count>=0)
+        {
+          entry.versionProperties=new Properties();
+          for (int j=0;j<count;j++)
+          { entry.versionProperties.setProperty(in.readUTF(),in.readUTF());
+          }
+        }
+        
+        entry.dependencies=readStrings(in);
+        
+        closures[i]=new int[in.readInt()];
+        for (int j=0;j<closures[i].length;j++)
+        { closures[i][j]=in.readInt();
+        }
+        
+        count=in.readInt();
+        entry.resourceNames=new String[count];
+        entry.resourceFlags=new byte[count];
+        entry.resourceSizes=new long[count];
+        entry.resourceCrcs=new long[count];
+        entry.resourceTimes=new long[count];
+        for (int j=0;j<count;j++)
+        {
+          entry.resourceNames[j]=in.readUTF();
+          entry.resourceFlags[j]=in.readByte();
+          entry.resourceSizes[j]=in.readLong();
+          entry.resourceCrcs[j]=in.readLong();
+          entry.resourceTimes[j]=in.readLong();
+        }
+        
+        entry.packages=listOf(readStrings(in));
+        
+        count=in.readInt();
+        Map<String,List<String>> services
+          =new LinkedHashMap<String,List<String>>();
+        for (int j=0;j<count;j++)
+        { services.put(in.readUTF(),listOf(readStrings(in)));
+        }
+        entry.services=Collections.unmodifiableMap(services);
+        
+        entry.environments=listOf(readStrings(in));
+        modules.add(entry);
+      }
+      
+      if (in.readInt()!=MAGIC)
+      { throw new IOException(file+" is incomplete");
+      }
+      
+      for (int i=0;i<moduleCount;i++)
+      { 
+        List<ModuleEntry> closure
+          =new ArrayList<ModuleEntry>(closures[i].length);
+        for (int index:closures[i])
+        { 
+          if (index<0 || index>=moduleCount)
+          { throw new IOException(file+" is corrupt");
+          }
+          closure.add(modules.get(index));
+        }
+        modules.get(i).dependencyClosure
+          =Collections.unmodifiableList(closure);
+      }
+      return new CatalogIndex(modules);
+    }
+  }
+  
+  /**
+   * <p>Write the index to a file. The index is written to a temporary file
+   *   which then replaces the file, so a launch never reads a partially
+   *   written index.
+   * </p>
+   */
+  public void write(File file)
+    throws IOException
+  {
+    File dir=file.getAbsoluteFile().getParentFile();
+    File tempFile=File.createTempFile(file.getName(),".tmp",dir);
+    boolean written=false;
+    try
+    {
+      try (DataOutputStream out
+            =new DataOutputStream
+              (new BufferedOutputStream(new FileOutputStream(tempFile),65536))
+          )
+      { write(out);
+      }
+      
+      try
+      { 
+        Files.move
+          (tempFile.toPath()
+          ,file.toPath()
+          ,StandardCopyOption.REPLACE_EXISTING
+          ,StandardCopyOption.ATOMIC_MOVE
+          );
+      }
+      catch (AtomicMoveNotSupportedException x)
+      { 
+        Files.move
+          (tempFile.toPath(),file.toPath(),StandardCopyOption.REPLACE_EXISTING);
+      }
+      written=true;
+    }
+    finally
+    {
+      if (!written)
+      { tempFile.delete();
+      }
+    }
+  }
+  
+  private void write(DataOutputStream out)
+    throws IOException
+  {
+    IdentityHashMap<ModuleEntry,Integer> indexes
+      =new IdentityHashMap<ModuleEntry,Integer>();
+    for (ModuleEntry entry:modules)
+    { indexes.put(entry,indexes.size());
+    }
+    
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    out.writeInt(modules.size());
+    for (ModuleEntry entry:modules)
+    {
+      out.writeUTF(entry.fileName);
+      out.writeByte(entry.kind);
+      out.writeLong(entry.length);
+      out.writeLong(entry.lastModified);
+      
+      if (entry.versionProperties!=null)
+      {
+        Set<String> keys
+          =new TreeSet<String>(entry.versionProperties.stringPropertyNames());
+        out.writeInt(keys.size());
+        for (String key:keys)
+        { 
+          out.writeUTF(key);
+          out.writeUTF(entry.versionProperties.getProperty(key));
+        }
+      }
+      else
+      { out.writeInt(-1);
+      }
+      
+      writeStrings(out,entry.dependencies);
+      
+      out.writeInt(entry.dependencyClosure.size());
+      for (ModuleEntry depends:entry.dependencyClosure)
+      { out.writeInt(indexes.get(depends));
+      }
+      
+      out.writeInt(entry.resourceNames.length);
+      for (int i=0;i<entry.resourceNames.length;i++)
+      {
+        out.writeUTF(entry.resourceNames[i]);
+        out.writeByte(entry.resourceFlags[i]);
+        out.writeLong(entry.resourceSizes[i]);
+        out.writeLong(entry.resourceCrcs[i]);
+        out.writeLong(entry.resourceTimes[i]);
+      }
+      
+      writeStrings(out,entry.packages.toArray(new String[0]));
+      
+      out.writeInt(entry.services.size());
+      for (Map.Entry<String,List<String>> service:entry.services.entrySet())
+      { 
+        out.writeUTF(service.getKey());
+        writeStrings(out,service.getValue().toArray(new String[0]));
+      }
+      
+      writeStrings(out,entry.environments.toArray(new String[0]));
+    }
+    out.writeInt(MAGIC);
+  }
+  
+  private static void writeStrings(DataOutputStream out,String[] strings)
+    throws IOException
+  {
+    if (strings==null)
+    { 
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(strings.length);
+    for (String string:strings)
+    { out.writeUTF(string);
+    }
+  }
+  
+  private static String[] readStrings(DataInputStream in)
+    throws IOException
+  {
+    int count=in.readInt();
+    if (count<0)
+    { return null;
+    }
+    String[] strings=new String[count];
+    for (int i=0;i<count;i++)
+    { strings[i]=in.readUTF();
+    }
+    return strings;
+  }
+  
+  private static List<String> listOf(String[] strings)
+  { 
+    return strings!=null
+      ?Collections.unmodifiableList(Arrays.asList(strings))
+      :Collections.<String>emptyList();
+  }
+  
+  /**
+   * <p>Determine whether the index describes exactly the libraries in the
+   *   directory, by comparing the file names, lengths and modification 
+   *   times.
+   * </p>
+   * 
+   * @return null if the index is current, otherwise the reason it is not
+   */
+  public String checkCurrent(File dir)
+  {
+    File[] libs=LibraryCatalog.listLibraryFiles(dir);
+    if (libs==null)
+    { return dir+" is not a directory";
+    }
+    
+    HashMap<String,ModuleEntry> entries
+      =new HashMap<String,ModuleEntry>(modules.size()*4/3+1);
+    for (ModuleEntry entry:modules)
+    { entries.put(entry.fileName,entry);
+    }
+    for (File lib:libs)
+    {
+      ModuleEntry entry=entries.remove(lib.getName());
+      if (entry==null)
+      { return lib.getName()+" is not in the index";
+      }
+      if (entry.length!=lib.length() || entry.lastModified!=lib.lastModified())
+      { return lib.getName()+" has changed";
+      }
+    }
+    if (!entries.isEmpty())
+    { return entries.keySet().iterator().next()+" no longer exists";
+    }
+    return null;
+  }
+  
+  /**
+   * Create the Modules described by the index, without reading the 
+   *   library files
+   */
+  List<Module> restoreModules(File dir)
+    throws IOException
+  {
+    List<Module> libraries=new ArrayList<Module>(modules.size());
+    for (ModuleEntry entry:modules)
+    {
+      File file=new File(dir,entry.fileName);
+      Module library;
+      switch (entry.kind)
+      {
+        case KIND_JAR:
+          JarModule jarModule=new JarModule(file,false);
+          int count=entry.resourceNames.length;
+          jarModule.resources=new HashMap<String,Resource>(count*4/3+1);
+          for (int i=0;i<count;i++)
+          {
+            JarResource resource
+              =new JarResource
+                ((entry.resourceFlags[i] & FLAG_DIRECTORY)!=0
+                ,entry.resourceSizes[i]
+                ,entry.resourceCrcs[i]
+                ,entry.resourceTimes[i]
+                ,(entry.resourceFlags[i] & FLAG_STORED)!=0
+                );
+            resource.name=entry.resourceNames[i];
+            resource.module=jarModule;
+            jarModule.resources.put(resource.name,resource);
+          }
+          jarModule.libraryDependencies=entry.dependencies;
+          jarModule.dependenciesCataloged=true;
+          library=jarModule;
+          break;
+        case KIND_NATIVE:
+          library=new NativeLibrary(file,false);
+          break;
+        default:
+          library=new FileModule(file);
+      }
+      library.versionProperties=entry.versionProperties;
+      library.versionCataloged=true;
+      libraries.add(library);
+    }
+    return libraries;
+  }
+  
+  /**
+   * The indexed libraries, in the order they were cataloged
+   */
+  public List<ModuleEntry> getModules()
+  { return modules;
+  }
+  
+  /**
+   * The libraries which contain classes in the specified package
+   */
+  public List<ModuleEntry> findPackageOwners(String packageName)
+  {
+    List<ModuleEntry> owners=new ArrayList<ModuleEntry>();
+    for (ModuleEntry entry:modules)
+    { 
+      if (entry.packages.contains(packageName))
+      { owners.add(entry);
+      }
+    }
+    return owners;
+  }
+  
+  /**
+   * The provider classes registered for a service in META-INF/services,
+   *   across all libraries
+   */
+  public List<String> findServiceProviders(String serviceName)
+  {
+    List<String> providers=new ArrayList<String>();
+    for (ModuleEntry entry:modules)
+    { 
+      List<String> moduleProviders=entry.services.get(serviceName);
+      if (moduleProviders!=null)
+      { providers.addAll(moduleProviders);
+      }
+    }
+    return providers;
+  }
+  
+  /**
+   * The libraries which declare the named environment in 
+   *   META-INF/spiralcraft.env
+   */
+  public List<ModuleEntry> findEnvironmentModules(String environmentName)
+  {
+    List<ModuleEntry> found=new ArrayList<ModuleEntry>();
+    for (ModuleEntry entry:modules)
+    { 
+      if (entry.environments.contains(environmentName))
+      { found.add(entry);
+      }
+    }
+    return found;
+  }
+  
+  /**
+   * The catalog data for one library
+   */
+  public static class ModuleEntry
+  {
+    private String fileName;
+    private byte kind;
+    private long length;
+    private long lastModified;
+    private Properties versionProperties;
+    private String[] dependencies;
+    private List<ModuleEntry> dependencyClosure;
+    private String[] resourceNames;
+    private byte[] resourceFlags;
+    private long[] resourceSizes;
+    private long[] resourceCrcs;
+    private long[] resourceTimes;
+    private List<String> packages;
+    private Map<String,List<String>> services;
+    private List<String> environments;
+    
+    private ModuleEntry()
+    { }
+    
+    private void truncateResources(int count)
+    {
+      resourceNames=Arrays.copyOf(resourceNames,count);
+      resourceFlags=Arrays.copyOf(resourceFlags,count);
+      resourceSizes=Arrays.copyOf(resourceSizes,count);
+      resourceCrcs=Arrays.copyOf(resourceCrcs,count);
+      resourceTimes=Arrays.copyOf(resourceTimes,count);
+    }
+    
+    /**
+     * The file name of the library in the library directory
+     */
+    public String getFileName()
+    { return fileName;
+    }
+    
+    public long getLength()
+    { return length;
+    }
+    
+    public long getLastModified()
+    { return lastModified;
+    }
+    
+    /**
+     * The contents of the library's Module.VERSION_RESOURCE, or null if it
+     *   has none
+     */
+    public Properties getVersionProperties()
+    { return versionProperties;
+    }
+    
+    /**
+     * The manifest Class-Path of the library, or null if it has none
+     */
+    public String[] getDependencies()
+    { return dependencies;
+    }
+    
+    /**
+     * The libraries this library depends on, directly or indirectly
+     */
+    public List<ModuleEntry> getDependencyClosure()
+    { return dependencyClosure;
+    }
+    
+    public int getResourceCount()
+    { return resourceNames.length;
+    }
+    
+    /**
+     * The packages which contain classes in this library
+     */
+    public List<String> getPackages()
+    { return packages;
+    }
+    
+    /**
+     * The META-INF/services registrations of this library, mapped from 
+     *   service name to provider class names
+     */
+    public Map<String,List<String>> getServices()
+    { return services;
+    }
+    
+    /**
+     * The names of the environments declared by this library
+     */
+    public List<String> getEnvironments()
+    { return environments;
+    }
+  }
+}
@@ -0,0 +1,360 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Collects per-module classloading statistics from LibraryClassLoaders
+ *   and their LibraryClasspaths while profiling is active.
+ * </p>
+ * 
+ * <p>At most one profile is active at a time. When no profile is active,
+ *   the instrumented paths only perform a volatile read of the active
+ *   profile.
+ * </p>
+ */
+public class ClassLoadProfile
+{
+  /**
+   * The pseudo-module under which lookups that found nothing are recorded
+   */
+  public static final String NOT_FOUND="(not found)";
+  
+  private static volatile ClassLoadProfile active;
+  
+  /**
+   * The active profile, or null if profiling is not active
+   */
+  public static ClassLoadProfile getActive()
+  { return active;
+  }
+  
+  /**
+   * Start a new profile, which replaces any active profile until it is
+   *   stopped
+   */
+  public static synchronized ClassLoadProfile start()
+  { 
+    ClassLoadProfile profile=new ClassLoadProfile(active);
+    active=profile;
+    return profile;
+  }
+  
+  /**
+   * Stop collecting data into this profile and, if it is active, 
+   *   reactivate the most recent profile it replaced that has not been
+   *   stopped
+   */
+  public void stop()
+  {
+    synchronized (ClassLoadProfile.class)
+    {
+      stopTime=System.nanoTime();
+      if (active==this)
+      { 
+        ClassLoadProfile profile=previous;
+        while (profile!=null && profile.stopTime!=0)
+        { profile=profile.previous;
+        }
+        active=profile;
+      }
+    }
+  }
+  
+  private final ConcurrentHashMap<String,ModuleStatistics> modules
+    =new ConcurrentHashMap<String,ModuleStatistics>();
+  private final ConcurrentLinkedQueue<ClassRecord> classes
+    =new ConcurrentLinkedQueue<ClassRecord>();
+  private final Set<String> delegatedClasses=ConcurrentHashMap.newKeySet();
+  private final long startTime=System.nanoTime();
+  private volatile long stopTime;
+  private final ClassLoadProfile previous;
+  
+  private ClassLoadProfile(ClassLoadProfile previous)
+  { this.previous=previous;
+  }
+  
+  private ModuleStatistics module(String module)
+  {
+    if (module==null)
+    { module=NOT_FOUND;
+    }
+    ModuleStatistics stats=modules.get(module);
+    if (stats==null)
+    { 
+      ModuleStatistics newStats=new ModuleStatistics(module);
+      stats=modules.putIfAbsent(module,newStats);
+      if (stats==null)
+      { stats=newStats;
+      }
+    }
+    return stats;
+  }
+  
+  /**
+   * Record a class or resource lookup, where module is null if the lookup
+   *   found nothing
+   */
+  public void lookup(String module)
+  { 
+    ModuleStatistics stats=module(module);
+    stats.lookups.increment();
+    if (module==null)
+    { stats.misses.increment();
+    }
+  }
+  
+  /**
+   * Record the reading of class or resource data from a module
+   */
+  public void dataLoaded(String module,int bytes,long nanos)
+  {
+    ModuleStatistics stats=module(module);
+    stats.bytes.add(bytes);
+    stats.loadNanos.add(nanos);
+  }
+  
+  /**
+   * Record the definition of a class read from a module
+   */
+  public void classDefined
+    (String name,String module,int bytes,long loadNanos,long defineNanos)
+  {
+    ModuleStatistics stats=module(module);
+    stats.classes.increment();
+    stats.defineNanos.add(defineNanos);
+    classes.add(new ClassRecord(name,stats.name,bytes,loadNanos,defineNanos));
+  }
+  
+  /**
+   * Record a class request satisfied by a parent ClassLoader. Each class
+   *   name is counted once, however often it is requested.
+   */
+  public void delegated(String name)
+  { delegatedClasses.add(name);
+  }
+  
+  /**
+   * The number of distinct classes that were supplied by a parent
+   *   ClassLoader
+   */
+  public int getDelegations()
+  { return delegatedClasses.size();
+  }
+  
+  public List<ModuleStatistics> getModules()
+  { return new ArrayList<ModuleStatistics>(modules.values());
+  }
+  
+  public List<ClassRecord> getClasses()
+  { return new ArrayList<ClassRecord>(classes);
+  }
+  
+  /**
+   * Print module totals and the slowest modules and classes
+   * 
+   * @param top The number of modules and classes to list
+   */
+  public void report(PrintStream out,int top)
+  {
+    long elapsed=(stopTime!=0?stopTime:System.nanoTime())-startTime;
+    List<ModuleStatistics> moduleList=getModules();
+    Collections.sort
+      (moduleList
+      ,new Comparator<ModuleStatistics>()
+      {
+        @Override
+        public int compare(ModuleStatistics a,ModuleStatistics b)
+        { return Long.compare(b.getTotalNanos(),a.getTotalNanos());
+        }
+      }
+      );
+    
+    long classCount=0;
+    long byteCount=0;
+    long loadNanos=0;
+    long defineNanos=0;
+    long lookups=0;
+    long misses=0;
+    for (ModuleStatistics stats:moduleList)
+    {
+      classCount+=stats.classes.sum();
+      byteCount+=stats.bytes.sum();
+      loadNanos+=stats.loadNanos.sum();
+      defineNanos+=stats.defineNanos.sum();
+      lookups+=stats.lookups.sum();
+      misses+=stats.misses.sum();
+    }
+    
+    out.println("Class loading profile ("+millis(elapsed)+" ms elapsed)");
+    out.println();
+    out.println("  Classes defined:     "+classCount);
+    out.println("  Bytes read:          "+byteCount);
+    out.println("  loadData time:       "+millis(loadNanos)+" ms");
+    out.println("  defineClass time:    "+millis(defineNanos)+" ms");
+    out.println("  Lookups:             "+lookups+" ("+misses+" misses)");
+    out.println("  Parent delegations:  "+delegatedClasses.size()+" classes");
+    out.println();
+    
+    out.println("Top "+Math.min(top,moduleList.size())+" modules by time:");
+    out.println
+      (String.format
+        ("  %8s %10s %10s %10s %8s %7s  %s"
+        ,"classes","bytes","load ms","define ms","lookups","misses","module"
+        )
+      );
+    for (ModuleStatistics stats:moduleList.subList(0,Math.min(top,moduleList.size())))
+    {
+      out.println
+        (String.format
+          ("  %8d %10d %10s %10s %8d %7d  %s"
+          ,stats.classes.sum()
+          ,stats.bytes.sum()
+          ,millis(stats.loadNanos.sum())
+          ,millis(stats.defineNanos.sum())
+          ,stats.lookups.sum()
+          ,stats.misses.sum()
+          ,stats.name
+          )
+        );
+    }
+    out.println();
+    
+    List<ClassRecord> classList=getClasses();
+    Collections.sort
+      (classList
+      ,new Comparator<ClassRecord>()
+      {
+        @Override
+        public int compare(ClassRecord a,ClassRecord b)
+        { return Long.compare(b.getTotalNanos(),a.getTotalNanos());
+        }
+      }
+      );
+    out.println("Top "+Math.min(top,classList.size())+" classes by time:");
+    out.println
+      (String.format
+        ("  %10s %10s %8s  %s"
+        ,"load ms","define ms","bytes","class [module]"
+        )
+      );
+    for (ClassRecord record:classList.subList(0,Math.min(top,classList.size())))
+    {
+      out.println
+        (String.format
+          ("  %10s %10s %8d  %s [%s]"
+          ,millis(record.loadNanos)
+          ,millis(record.defineNanos)
+          ,record.bytes
+          ,record.name
+          ,record.module
+          )
+        );
+    }
+  }
+  
+  private static String millis(long nanos)
+  { return String.format("%.3f",nanos/1000000.0);
+  }
+  
+  /**
+   * Totals for a single module
+   */
+  public static class ModuleStatistics
+  {
+    private final String name;
+    final LongAdder classes=new LongAdder();
+    final LongAdder bytes=new LongAdder();
+    final LongAdder loadNanos=new LongAdder();
+    final LongAdder defineNanos=new LongAdder();
+    final LongAdder lookups=new LongAdder();
+    final LongAdder misses=new LongAdder();
+    
+    ModuleStatistics(String name)
+    { this.name=name;
+    }
+    
+    public String getName()
+    { return name;
+    }
+    
+    public long getClasses()
+    { return classes.sum();
+    }
+    
+    public long getBytes()
+    { return bytes.sum();
+    }
+    
+    public long getLookups()
+    { return lookups.sum();
+    }
+    
+    public long getMisses()
+    { return misses.sum();
+    }
+    
+    public long getTotalNanos()
+    { return loadNanos.sum()+defineNanos.sum();
+    }
+  }
+  
+  /**
+   * The cost of a single class
+   */
+  public static class ClassRecord
+  {
+    private final String name;
+    private final String module;
+    private final int bytes;
+    private final long loadNanos;
+    private final long defineNanos;
+    
+    ClassRecord
+      (String name,String module,int bytes,long loadNanos,long defineNanos)
+    {
+      this.name=name;
+      this.module=module;
+      this.bytes=bytes;
+      this.loadNanos=loadNanos;
+      this.defineNanos=defineNanos;
+    }
+    
+    public String getName()
+    { return name;
+    }
+    
+    public String getModule()
+    { return module;
+    }
+    
+    public int getBytes()
+    { return bytes;
+    }
+    
+    public long getTotalNanos()
+    { return loadNanos+defineNanos;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for each phase of launching an 
+ *   application environment- find, activate and exec.
+ */
+@Name("spiralcraft.launcher.Environment")
+@Label("Environment Launch Phase")
+@Category({"Spiralcraft","Launcher"})
+@Description("A phase of locating, activating or running an environment")
+class EnvironmentEvent
+  extends jdk.jfr.Event
+{
+  @Label("Phase")
+  String phase;
+  
+  @Label("Environment")
+  String environment;
+}
@@ -14,6 +14,7 @@
 //
 package spiralcraft.launcher;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 
@@ -30,8 +31,14 @@ import spiralcraft.io.PrintStreamReference;
 import spiralcraft.service.Service;
 
 /**
- * Sets up an Execution context to handle IO streams for launched
+ * <p>Sets up an Execution context to handle IO streams for launched
  *   application environments.
+ * </p>
+ * 
+ * <p>When asyncOutput is enabled, the context's out and err streams are
+ *   buffered through AsyncOutputStreams which resolve the current target
+ *   once per batch instead of once per write. They are flushed on pop().
+ * </p>
  * 
  * @author mike
  *
@@ -52,6 +59,9 @@ public class ExecutionContextService
   
   private LauncherThreadGroup launcherGroup;
   
+  private boolean asyncOutput;
+  private int asyncOutputCapacity=AsyncOutputStream.DEFAULT_CAPACITY;
+  
   public void setOutStream(PrintStream outStream)
   { this.outStream=outStream;
   }
@@ -63,68 +73,166 @@ public class ExecutionContextService
   public void setInStream(InputStream inStream)
   { this.inStream=inStream;
   }
+  
+  /**
+   * Buffer output asynchronously. Applies to contexts pushed after this
+   *   is set.
+   */
+  public void setAsyncOutput(boolean asyncOutput)
+  { this.asyncOutput=asyncOutput;
+  }
+
+  /**
+   * The maximum number of bytes buffered for each asynchronous output
+   *   stream before writers drain the buffer themselves.
+   */
+  public void setAsyncOutputCapacity(int asyncOutputCapacity)
+  { this.asyncOutputCapacity=asyncOutputCapacity;
+  }
 
   
   @Override
   public void push()
   {
-    ExecutionContext.pushInstance
-      (new ExecutionContext(ExecutionContext.getInstance())
+    final ExecutionContext delegate=ExecutionContext.getInstance();
+    final PrintStream out
+      =new PrintStreamReference(true)
       {
-        private final ExecutionContext delegate=ExecutionContext.getInstance();
-        private final PrintStreamReference out
-          =new PrintStreamReference(true)
-          {
-
-            @Override
-            protected PrintStream get()
-            { return outStream!=null?outStream:delegate.out();
-            }
-          
-          };
-            
-        private final PrintStreamReference err
-          =new PrintStreamReference(true)
-          {
-
-            @Override
-            protected PrintStream get()
-            { return errStream!=null?errStream:delegate.err();
-            }
-          
-          };
-        
-        private final InputStreamReference in
-          =new InputStreamReference()
-          { 
-            protected InputStream get()
-            { return inStream!=null?inStream:delegate.in();
-            }
-          
-          };
 
         @Override
-        public PrintStream out()
-        { return out;
+        protected PrintStream get()
+        { return outStream!=null?outStream:delegate.out();
         }
+      
+      };
         
-        @Override
-        public PrintStream err()
-        { return err;
-        }
+    final PrintStream err
+      =new PrintStreamReference(true)
+      {
 
         @Override
-        public InputStream in()
-        { return in;
+        protected PrintStream get()
+        { return errStream!=null?errStream:delegate.err();
         }
-        
-      }
+      
+      };
+    
+    final InputStream in
+      =new InputStreamReference()
+      { 
+        protected InputStream get()
+        { return inStream!=null?inStream:delegate.in();
+        }
+      
+      };
+    
+    ExecutionContext.pushInstance
+      (asyncOutput
+      ?new ServiceExecutionContext
+        (delegate,createAsyncStream(out),createAsyncStream(err),in)
+      :new ServiceExecutionContext(delegate,out,err,in)
+      );
+  }
+  
+  private AsyncOutputStream createAsyncStream(PrintStream target)
+  {
+    return new AsyncOutputStream
+      (target
+      ,asyncOutputCapacity
+      ,AsyncOutputStream.OverflowPolicy.CALLER_DRAINS
       );
   }
 
   @Override
   public void pop()
-  { ExecutionContext.popInstance();
+  { 
+    ExecutionContext context=ExecutionContext.getInstance();
+    context.out().flush();
+    context.err().flush();
+    ExecutionContext.popInstance();
+    if (context instanceof ServiceExecutionContext)
+    { ((ServiceExecutionContext) context).closeAsyncStreams();
+    }
+  }
+  
+  /**
+   * The context pushed by push(). Each context owns the asynchronous 
+   *   streams created for it, so nested or concurrent pushes each release
+   *   their own streams when popped.
+   */
+  private static class ServiceExecutionContext
+    extends ExecutionContext
+  {
+    private final AsyncOutputStream asyncOut;
+    private final AsyncOutputStream asyncErr;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final InputStream in;
+    
+    ServiceExecutionContext
+      (ExecutionContext delegate
+      ,PrintStream out
+      ,PrintStream err
+      ,InputStream in
+      )
+    { 
+      super(delegate);
+      this.asyncOut=null;
+      this.asyncErr=null;
+      this.out=out;
+      this.err=err;
+      this.in=in;
+    }
+    
+    ServiceExecutionContext
+      (ExecutionContext delegate
+      ,AsyncOutputStream asyncOut
+      ,AsyncOutputStream asyncErr
+      ,InputStream in
+      )
+    {
+      super(delegate);
+      this.asyncOut=asyncOut;
+      this.asyncErr=asyncErr;
+      this.out=new PrintStream(asyncOut,false);
+      this.err=new PrintStream(asyncErr,false);
+      this.in=in;
+    }
+
+    @Override
+    public PrintStream out()
+    { return out;
+    }
+    
+    @Override
+    public PrintStream err()
+    { return err;
+    }
+
+    @Override
+    public InputStream in()
+    { return in;
+    }
+    
+    /**
+     * Write any buffered output and stop accepting writes. The underlying
+     *   streams remain open, since they belong to the enclosing context.
+     */
+    void closeAsyncStreams()
+    {
+      try
+      {
+        if (asyncOut!=null)
+        { asyncOut.release();
+        }
+        if (asyncErr!=null)
+        { asyncErr.release();
+        }
+      }
+      catch (IOException x)
+      { x.printStackTrace();
+      }
+    }
   }
 
   public void setServices(Service[] services)
@@ -0,0 +1,103 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import spiralcraft.log.ClassLog;
+import spiralcraft.main.Spiralcraft;
+
+/**
+ * <p>Registers launcher management beans with the platform MBeanServer,
+ *   under the "spiralcraft.launcher" domain.
+ * </p>
+ * 
+ * <p>Registration only occurs when requested with the --jmx launcher
+ *   option, or when remote JMX has been configured for the JVM, so
+ *   ordinary runs do not pay to start the platform MBeanServer. The
+ *   statistics the beans expose are always maintained.
+ * </p>
+ */
+final class LauncherMBeans
+{
+  static final String DOMAIN="spiralcraft.launcher";
+  
+  private static final ClassLog log
+    =ClassLog.getInstance(LauncherMBeans.class);
+  private static final AtomicInteger NEXT_ID=new AtomicInteger();
+  
+  static boolean isEnabled()
+  { 
+    return Spiralcraft.JMX
+      || System.getProperty("com.sun.management.jmxremote")!=null
+      || System.getProperty("com.sun.management.jmxremote.port")!=null
+      ;
+  }
+  
+  /**
+   * Assign a process-unique id to distinguish beans of the same type
+   */
+  static int nextId()
+  { return NEXT_ID.incrementAndGet();
+  }
+  
+  /**
+   * Register a bean if registration is enabled
+   * 
+   * @param properties The key properties of the ObjectName, eg. 
+   *   "type=LibraryCatalog,id=1"
+   * @return The ObjectName under which the bean was registered, or null
+   *   if it was not registered
+   */
+  static ObjectName register(Object bean,String properties)
+  {
+    if (!isEnabled())
+    { return null;
+    }
+    
+    try
+    {
+      ObjectName name=new ObjectName(DOMAIN+":"+properties);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(bean,name);
+      return name;
+    }
+    catch (JMException x)
+    { 
+      log.warning("Could not register MBean "+properties+": "+x);
+      return null;
+    }
+  }
+  
+  static void unregister(ObjectName name)
+  {
+    if (name==null)
+    { return;
+    }
+    
+    try
+    { ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+    catch (JMException x)
+    { log.warning("Could not unregister MBean "+name+": "+x);
+    }
+  }
+  
+  private LauncherMBeans()
+  { }
+}
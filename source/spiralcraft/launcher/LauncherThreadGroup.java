@@ -14,63 +14,389 @@
 //
 package spiralcraft.launcher;
 
-import java.util.LinkedList;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * <p>Runs launched commands and tracks the threads they create.
+ * </p>
+ * 
+ * <p>Each call to run() executes the command on a new daemon thread and
+ *   blocks until the command completes or finish() is called, whichever
+ *   happens first. When virtual threads are enabled and the platform 
+ *   supports them (JDK 21+), commands run on virtual threads instead of
+ *   platform threads in this group.
+ * </p>
+ * 
+ * <p>Virtual threads are never members of a ThreadGroup, and a thread 
+ *   constructed with new Thread(...) joins the group of the thread that 
+ *   constructs it. When a command runs on a virtual thread, threads the 
+ *   application constructs directly are therefore outside this group and
+ *   are not counted, and their resource usage is not included in 
+ *   getResourceUsage(). Threads created through this group's 
+ *   ThreadFactory interface are still tracked.
+ * </p>
+ * 
+ * <p>Threads created through this group's ThreadFactory interface 
+ *   (including launch threads) are tracked as they start and exit, which 
+ *   allows join() to wait on a single completion signal and provides live,
+ *   peak and total thread counts. Threads constructed directly in this
+ *   group by application code cannot be tracked and are joined by
+ *   enumeration once the tracked threads have completed.
+ * </p>
+ * 
+ * <p>The CPU time and heap allocation of tracked threads is captured when
+ *   each thread exits and is combined with a measurement of the live
+ *   threads in the group by getResourceUsage(). Untracked threads are only
+ *   measured while they are alive, so getResourceUsage() does not include
+ *   untracked threads that have already exited. Tracked threads are also
+ *   charged to the ResourceAccount of the launch that created them.
+ * </p>
+ */
 public class LauncherThreadGroup
   extends ThreadGroup
+  implements ThreadFactory
 {
-  private static volatile int NEXT_ID=0;
+  private static final AtomicInteger NEXT_ID=new AtomicInteger();
+  
+  // Thread.ofVirtual() and Thread.Builder.unstarted(Runnable), resolved
+  //   reflectively so the launcher still builds and runs on older JDKs
+  private static final Method OF_VIRTUAL;
+  private static final Method UNSTARTED;
+  
+  static
+  {
+    Method ofVirtual=null;
+    Method unstarted=null;
+    try
+    { 
+      ofVirtual=Thread.class.getMethod("ofVirtual");
+      unstarted
+        =ofVirtual.getReturnType().getMethod("unstarted",Runnable.class);
+      
+      // Fails when virtual threads are a disabled preview feature
+      ofVirtual.invoke(null);
+    }
+    catch (NoSuchMethodException 
+          | IllegalAccessException
+          | InvocationTargetException x
+          )
+    { 
+      ofVirtual=null;
+      unstarted=null;
+    }
+    OF_VIRTUAL=ofVirtual;
+    UNSTARTED=unstarted;
+  }
+  
+  /**
+   * Indicate whether the running JVM is capable of running launches on
+   *   virtual threads.
+   */
+  public static boolean isVirtualThreadSupported()
+  { return OF_VIRTUAL!=null;
+  }
+  
   private volatile boolean finished=false;
-  private LinkedList<Thread> launchThreads=new LinkedList<>();
+  private volatile boolean virtualThreads=false;
+  private final Set<CountDownLatch> pendingLaunches
+    =ConcurrentHashMap.newKeySet();
+  
+  private final Object completionMonitor=new Object();
+  private final Set<Thread> trackedThreads=ConcurrentHashMap.newKeySet();
+  private final AtomicInteger liveThreads=new AtomicInteger();
+  private final AtomicInteger peakThreads=new AtomicInteger();
+  private final AtomicLong totalThreads=new AtomicLong();
+  private final LongAdder exitedCpuTime=new LongAdder();
+  private final LongAdder exitedAllocatedBytes=new LongAdder();
   
   public LauncherThreadGroup()
   { super("spiralcraft-launcher");
   }
   
+  /**
+   * <p>Run launches on virtual threads when supported by the JVM. Falls
+   *   back to platform daemon threads otherwise.
+   * </p>
+   * 
+   * <p>Note that virtual threads are not members of this ThreadGroup, so
+   *   threads the command constructs directly are not tracked.
+   * </p>
+   */
+  public void setVirtualThreads(boolean virtualThreads)
+  { this.virtualThreads=virtualThreads;
+  }
+  
+  public boolean isVirtualThreads()
+  { return virtualThreads && isVirtualThreadSupported();
+  }
+  
+  /**
+   * The number of tracked threads that have been started and have not
+   *   yet exited.
+   */
+  public int getLiveThreadCount()
+  { return liveThreads.get();
+  }
+  
+  /**
+   * The maximum number of tracked threads that were alive at one time
+   */
+  public int getPeakThreadCount()
+  { return peakThreads.get();
+  }
+  
+  /**
+   * The total number of tracked threads started by this group
+   */
+  public long getTotalThreadCount()
+  { return totalThreads.get();
+  }
+  
+  /**
+   * <p>The CPU time and heap allocation consumed by tracked threads that
+   *   have exited, plus that of all threads currently alive in this group.
+   * </p>
+   */
+  public ResourceUsage getResourceUsage()
+  {
+    Thread[] threads=new Thread[activeCount()+8];
+    int count=enumerate(threads);
+    long[] ids=new long[count];
+    for (int i=0;i<count;i++)
+    { ids[i]=threads[i].getId();
+    }
+    
+    long exitedThreads=totalThreads.get()-liveThreads.get();
+    return ResourceUsage.ofThreads(ids).plus
+      (new ResourceUsage
+        (exitedCpuTime.sum()
+        ,exitedAllocatedBytes.sum()
+        ,exitedThreads
+        )
+      );
+  }
+  
+  /**
+   * <p>Create a tracked thread in this group.
+   * </p>
+   */
+  @Override
+  public Thread newThread(Runnable runnable)
+  { return new Thread(this,track(runnable),getName()+"-"+NEXT_ID.getAndIncrement());
+  }
+
+  /**
+   * Wrap a Runnable so the thread that runs it is counted from the time it
+   *   starts running until the time it exits. A thread that is created but
+   *   never started is not counted. The thread is charged to the 
+   *   ResourceAccount current on the creating thread, which is also
+   *   current on the new thread.
+   */
+  private Runnable track(final Runnable runnable)
+  {
+    final ResourceAccount account=ResourceAccount.current();
+    return new Runnable()
+    {
+      @Override
+      public void run()
+      { 
+        threadStarted();
+        if (account!=null)
+        { 
+          account.threadStarted();
+          account.enter();
+        }
+        try
+        { runnable.run();
+        }
+        finally
+        { threadExited(account);
+        }
+      }
+    };
+  }
+  
+  private void threadStarted()
+  {
+    trackedThreads.add(Thread.currentThread());
+    int live=liveThreads.incrementAndGet();
+    totalThreads.incrementAndGet();
+    int peak;
+    while (live>(peak=peakThreads.get()) 
+          && !peakThreads.compareAndSet(peak,live)
+          )
+    { }
+  }
+  
+  private void threadExited(ResourceAccount account)
+  {
+    long cpuTime=Math.max(0,ResourceUsage.currentThreadCpuTime());
+    long allocatedBytes=Math.max(0,ResourceUsage.currentThreadAllocatedBytes());
+    exitedCpuTime.add(cpuTime);
+    exitedAllocatedBytes.add(allocatedBytes);
+    if (account!=null)
+    { account.threadExited(cpuTime,allocatedBytes);
+    }
+    trackedThreads.remove(Thread.currentThread());
+    
+    if (liveThreads.decrementAndGet()==0)
+    {
+      synchronized (completionMonitor)
+      { completionMonitor.notifyAll();
+      }
+    }
+  }
+  
+  /**
+   * Release all callers blocked in run(), whether or not their commands
+   *   have completed.
+   */
   void finish()
-  { finished=true;
+  { 
+    finished=true;
+    for (CountDownLatch latch:pendingLaunches)
+    { latch.countDown();
+    }
   }
   
-  public void run(Runnable runnable)
+  public void run(final Runnable runnable)
   {
-    Thread thread=new Thread(this,runnable,"launch-"+(NEXT_ID++));
-    launchThreads.add(thread);
-    thread.setDaemon(true);
+    final CountDownLatch completion=new CountDownLatch(1);
+    pendingLaunches.add(completion);
+    if (finished)
+    { completion.countDown();
+    }
+    
+    Runnable launch
+      =new Runnable()
+      {
+        @Override
+        public void run()
+        { 
+          try
+          { runnable.run();
+          }
+          finally
+          { completion.countDown();
+          }
+        }
+      };
+    
+    Thread thread
+      =newLaunchThread(track(launch),"launch-"+NEXT_ID.getAndIncrement());
     thread.start();
     try
-    {
-      while (!finished && thread.isAlive())
-      { thread.join(100);
-      }
+    { completion.await();
     }
     catch (InterruptedException x)
     {
     }
+    finally
+    { pendingLaunches.remove(completion);
+    }
     thread.setContextClassLoader(null);
     thread=null;
   }
   
-  public void join()
+  private Thread newLaunchThread(Runnable runnable,String name)
   {
-    while (true) 
+    if (isVirtualThreads())
     {
-      Thread[] threads=new Thread[activeCount()];
-      enumerate(threads);
-      for (Thread thread:threads)
+      try
       { 
+        Thread thread
+          =(Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null),runnable);
+        thread.setName(name);
+        return thread;
+      }
+      catch (IllegalAccessException | InvocationTargetException x)
+      { throw new IllegalStateException("Error creating virtual thread",x);
+      }
+    }
+    
+    Thread thread=new Thread(this,runnable,name);
+    thread.setDaemon(true);
+    return thread;
+  }
+  
+  /**
+   * <p>Wait for all threads in this group to complete.
+   * </p>
+   * 
+   * <p>Blocks until the tracked thread count reaches zero, then joins any
+   *   untracked threads that remain in the group. Repeats until both are
+   *   exhausted, since untracked threads may spawn tracked ones and vice
+   *   versa.
+   * </p>
+   * 
+   * @throws IllegalStateException if called from a tracked thread in this
+   *   group, which would wait on itself
+   */
+  public void join()
+  {
+    if (trackedThreads.contains(Thread.currentThread()))
+    { 
+      throw new IllegalStateException
+        ("join() called from a tracked thread in "+getName());
+    }
+    
+    Thread[] threads=new Thread[16];
+    do
+    {
+      synchronized (completionMonitor)
+      {
+        while (liveThreads.get()>0)
+        { 
+          try
+          { completionMonitor.wait();
+          }
+          catch (InterruptedException x)
+          { 
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+      
+      int count;
+      while ((count=enumerate(threads))==threads.length)
+      { threads=new Thread[threads.length*2];
+      }
+      
+      boolean joined=false;
+      for (int i=0;i<count;i++)
+      {
+        Thread thread=threads[i];
+        threads[i]=null;
+        if (thread==Thread.currentThread() || trackedThreads.contains(thread))
+        { 
+          // Tracked threads started since the wait are covered by the
+          //   next pass
+          continue;
+        }
         try
         { thread.join();
         }
         catch (InterruptedException x)
-        { x.printStackTrace();
+        { 
+          Thread.currentThread().interrupt();
+          return;
         }
         thread.setContextClassLoader(null);
+        joined=true;
       }
-      if (threads.length==0)
+      if (!joined && liveThreads.get()==0)
       { break;
       }
-      
-      threads=null;
     }
+    while (true);
   }
 }
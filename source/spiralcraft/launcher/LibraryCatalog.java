@@ -14,25 +14,39 @@
 //
 package spiralcraft.launcher;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.BufferedInputStream;
+import java.io.InputStream;
 
 import java.util.Map.Entry;
 import java.util.jar.JarFile;
 import java.util.jar.JarEntry;
 import java.util.jar.Manifest;
 import java.util.jar.Attributes;
+import java.util.zip.ZipEntry;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import java.net.URL;
 
+import javax.management.ObjectName;
+
 import spiralcraft.log.ClassLog;
 import spiralcraft.log.Level;
 import spiralcraft.util.IteratorEnumeration;
@@ -57,7 +71,18 @@ public class LibraryCatalog
   private final String codebaseRootPath;
 
   private ArrayList<Module> codebaseLibraries=new ArrayList<Module>();
-  private boolean closed;
+  private volatile Map<String,List<String>> directoryTree;
+  private volatile int generation;
+  private final VfsResourceFactory resourceFactory;
+  private volatile boolean closed;
+  private volatile long discoveryTimeMillis;
+  private volatile boolean indexed;
+  private volatile CatalogIndex index;
+  private volatile Map<CatalogIndex.ModuleEntry,Module> indexedModules;
+  private final int mbeanId=LauncherMBeans.nextId();
+  private ObjectName mbeanName;
+  private final LongAdder classpathsCreated=new LongAdder();
+  private final LongAdder activeClasspaths=new LongAdder();
   private ClassLog log=ClassLog.getInstance(LibraryCatalog.class);
   private Level logLevel
     =ClassLog.getInitialDebugLevel(LibraryCatalog.class,null);
@@ -68,27 +93,136 @@ public class LibraryCatalog
    * @throws AlreadyRegisteredException 
    */
   public LibraryCatalog(File path) 
+  { this(path,true);
+  }
+  
+  /**
+   * <p>Create a new LibraryCatalog for the library located at the specified
+   *   File path, optionally without registering it as the provider of 
+   *   "sclib:" URIs. Only one catalog can be registered per process, so
+   *   additional catalogs (eg. for tools and benchmarks) must not be.
+   * </p>
+   */
+  public LibraryCatalog(File path,boolean registerResolver)
+  { this(path,registerResolver,true);
+  }
+  
+  /**
+   * <p>Create a new LibraryCatalog, optionally ignoring any CatalogIndex
+   *   in the library directory and discovering the libraries from the 
+   *   files themselves.
+   * </p>
+   */
+  public LibraryCatalog
+    (File path,boolean registerResolver,boolean useIndex)
   { 
-    try
+    resourceFactory=new VfsResourceFactory(this);
+    if (registerResolver)
     {
-      spiralcraft.vfs.Resolver.getInstance()
-        .registerResourceFactory("sclib",new VfsResourceFactory(this));
-    }
-    catch (AlreadyRegisteredException x)
-    { throw new RuntimeException("Error registering 'sclib'",x);
+      try
+      {
+        spiralcraft.vfs.Resolver.getInstance()
+          .registerResourceFactory("sclib",resourceFactory);
+      }
+      catch (AlreadyRegisteredException x)
+      { throw new RuntimeException("Error registering 'sclib'",x);
+      }
     }
     
     codebaseRootPath=path.getAbsolutePath();
-    loadCatalog();
+    loadCatalog(useIndex);
+    mbeanName
+      =LauncherMBeans.register(new Management(),"type=LibraryCatalog,id="+mbeanId);
   }
   
   public List<Module> listModules()
   { return codebaseLibraries;
   }
   
+  /**
+   * <p>A number which changes whenever the set of modules in the catalog
+   *   changes, for invalidating cached lookups.
+   * </p>
+   */
+  public int getGeneration()
+  { return generation;
+  }
+  
+  /**
+   * The directory containing the libraries
+   */
+  public String getPath()
+  { return codebaseRootPath;
+  }
+  
+  /**
+   * Whether the catalog was restored from a CatalogIndex rather than 
+   *   discovered
+   */
+  public boolean isIndexed()
+  { return indexed;
+  }
+  
+  /**
+   * The CatalogIndex the catalog was restored from, or null if the 
+   *   libraries were discovered
+   */
+  public CatalogIndex getIndex()
+  { return index;
+  }
+  
+  /**
+   * <p>The libraries which contain classes in the specified package, 
+   *   according to the CatalogIndex.
+   * </p>
+   * 
+   * @return The owning libraries, or null if the catalog is not indexed
+   */
+  public List<Module> findPackageOwners(String packageName)
+  { 
+    CatalogIndex index=this.index;
+    if (index==null)
+    { return null;
+    }
+    return toModules(index.findPackageOwners(packageName));
+  }
+  
+  /**
+   * <p>The libraries which declare the named environment in 
+   *   META-INF/spiralcraft.env, according to the CatalogIndex.
+   * </p>
+   * 
+   * @return The declaring libraries, or null if the catalog is not indexed
+   */
+  public List<Module> findEnvironmentModules(String environmentName)
+  { 
+    CatalogIndex index=this.index;
+    if (index==null)
+    { return null;
+    }
+    return toModules(index.findEnvironmentModules(environmentName));
+  }
+  
+  private List<Module> toModules(List<CatalogIndex.ModuleEntry> entries)
+  {
+    Map<CatalogIndex.ModuleEntry,Module> modules=indexedModules;
+    List<Module> result=new ArrayList<Module>(entries.size());
+    for (CatalogIndex.ModuleEntry entry:entries)
+    { result.add(modules.get(entry));
+    }
+    return result;
+  }
+  
+  VfsResourceFactory getResourceFactory()
+  { return resourceFactory;
+  }
+  
   public void close()
   {
+    LauncherMBeans.unregister(mbeanName);
+    mbeanName=null;
     closed=true;
+    generation++;
     for (Module library: codebaseLibraries)
     { 
       try
@@ -112,6 +246,84 @@ public class LibraryCatalog
   public LibraryClasspath createLibraryClasspath()
   { return new LibraryClasspathImpl();
   }
+  
+  /**
+   * Exposes catalog statistics through JMX
+   */
+  private class Management
+    implements LibraryCatalogMXBean
+  {
+    @Override
+    public String getPath()
+    { return codebaseRootPath;
+    }
+
+    @Override
+    public int getModuleCount()
+    { return codebaseLibraries.size();
+    }
+
+    @Override
+    public int getResourceCount()
+    { 
+      int count=0;
+      for (Module module:new ArrayList<Module>(codebaseLibraries))
+      { count+=module.resources.size();
+      }
+      return count;
+    }
+
+    @Override
+    public int getOpenJarCount()
+    {
+      int count=0;
+      for (Module module:new ArrayList<Module>(codebaseLibraries))
+      { 
+        if (module instanceof JarModule && ((JarModule) module).isJarOpen())
+        { count++;
+        }
+      }
+      return count;
+    }
+
+    @Override
+    public int getModuleReferenceCount()
+    {
+      int count=0;
+      for (Module module:new ArrayList<Module>(codebaseLibraries))
+      { 
+        if (module instanceof JarModule)
+        { count+=((JarModule) module).getOpenCount();
+        }
+      }
+      return count;
+    }
+
+    @Override
+    public int getGeneration()
+    { return generation;
+    }
+
+    @Override
+    public long getDiscoveryTimeMillis()
+    { return discoveryTimeMillis;
+    }
+
+    @Override
+    public long getActiveClasspathCount()
+    { return activeClasspaths.sum();
+    }
+
+    @Override
+    public long getClasspathsCreated()
+    { return classpathsCreated.sum();
+    }
+
+    @Override
+    public boolean isClosed()
+    { return closed;
+    }
+  }
 
   public Module findModule(String fileName)
   {
@@ -160,6 +372,81 @@ public class LibraryCatalog
     return list.iterator();
   }
   
+  /**
+   * <p>List the names of the immediate children of a directory path, merged
+   *   across all modules in the catalog. The root directory is "".
+   * </p>
+   * 
+   * @return The child names, or null if no module contains the directory
+   */
+  public List<String> listDirectory(String path)
+  { 
+    if (path.endsWith("/"))
+    { path=path.substring(0,path.length()-1);
+    }
+    return getDirectoryTree().get(path);
+  }
+  
+  /**
+   * Build the merged directory tree on first use. Jars do not always 
+   *   contain entries for directories, so parents are derived from the
+   *   resource paths themselves.
+   */
+  private Map<String,List<String>> getDirectoryTree()
+  {
+    Map<String,List<String>> tree=directoryTree;
+    if (tree==null)
+    {
+      synchronized (this)
+      {
+        tree=directoryTree;
+        if (tree==null)
+        { 
+          tree=buildDirectoryTree();
+          directoryTree=tree;
+        }
+      }
+    }
+    return tree;
+  }
+  
+  private Map<String,List<String>> buildDirectoryTree()
+  {
+    HashMap<String,Set<String>> children=new HashMap<String,Set<String>>();
+    for (Module library: codebaseLibraries)
+    {
+      for (String name: library.resources.keySet())
+      {
+        String path=name;
+        while (path.length()>0)
+        { 
+          int slash=path.lastIndexOf('/');
+          String parent=slash>=0?path.substring(0,slash):"";
+          Set<String> siblings=children.get(parent);
+          if (siblings==null)
+          { 
+            siblings=new LinkedHashSet<String>();
+            children.put(parent,siblings);
+          }
+          if (!siblings.add(path.substring(slash+1)))
+          { break;
+          }
+          path=parent;
+        }
+      }
+    }
+    
+    HashMap<String,List<String>> tree
+      =new HashMap<String,List<String>>(children.size()*4/3+1);
+    for (Map.Entry<String,Set<String>> entry: children.entrySet())
+    { 
+      tree.put
+        (entry.getKey()
+        ,Collections.unmodifiableList(new ArrayList<String>(entry.getValue()))
+        );
+    }
+    return tree;
+  }
     
   private Module getModule(String fullPath)
   { 
@@ -175,15 +462,96 @@ public class LibraryCatalog
   /**
    * Load catalog data into memory
    */
-  private void loadCatalog()
+  private void loadCatalog(boolean useIndex)
   { 
     try
-    { discoverLibraries();
+    { 
+      if (!useIndex || !restoreIndex())
+      { discoverLibraries();
+      }
     }
     catch (IOException x)
     { x.printStackTrace();
     }
   }
+  
+  /**
+   * <p>Restore the catalog from the CatalogIndex in the library directory,
+   *   if there is one and the libraries have not changed since it was 
+   *   written.
+   * </p>
+   * 
+   * @return Whether the catalog was restored
+   */
+  private boolean restoreIndex()
+  {
+    File indexFile=new File(codebaseRootPath,CatalogIndex.FILE_NAME);
+    if (!indexFile.exists())
+    { return false;
+    }
+    
+    long start=System.nanoTime();
+    CatalogIndex index;
+    List<Module> modules;
+    try
+    { 
+      index=CatalogIndex.read(indexFile);
+      File dir=new File(codebaseRootPath);
+      String staleReason=index.checkCurrent(dir);
+      if (staleReason!=null)
+      { 
+        log.info
+          ("Not using catalog index "+indexFile+": "+staleReason
+          +". Run the 'catalog' built-in to update it."
+          );
+        return false;
+      }
+      modules=index.restoreModules(dir);
+    }
+    catch (IOException x)
+    { 
+      log.warning("Error reading catalog index "+indexFile+": "+x);
+      return false;
+    }
+    
+    // restoreModules() creates one Module per entry, in index order
+    IdentityHashMap<CatalogIndex.ModuleEntry,Module> entryModules
+      =new IdentityHashMap<CatalogIndex.ModuleEntry,Module>();
+    List<CatalogIndex.ModuleEntry> entries=index.getModules();
+    for (int i=0;i<entries.size();i++)
+    { entryModules.put(entries.get(i),modules.get(i));
+    }
+    
+    codebaseLibraries.clear();
+    codebaseLibraries.addAll(modules);
+    directoryTree=null;
+    generation++;
+    indexedModules=entryModules;
+    this.index=index;
+    indexed=true;
+    discoveryTimeMillis=(System.nanoTime()-start)/1000000;
+    return true;
+  }
+  
+  /**
+   * List the library files in a directory
+   */
+  static File[] listLibraryFiles(File dir)
+  {
+    return dir.listFiles
+      (new FilenameFilter()
+      {
+        @Override
+        public boolean accept(File dir,String name)
+        { 
+          return name.endsWith(".jar")
+            || name.endsWith(".dll")
+            || name.endsWith(".so")
+            ;
+        }
+      }
+      );
+  }
 
   /**
    * Discovers all libraries usable by this catalog
@@ -191,23 +559,15 @@ public class LibraryCatalog
   private void discoverLibraries()
     throws IOException
   { 
-    File[] libs
-      =new File(codebaseRootPath)
-        .listFiles
-          (new FilenameFilter()
-          {
-            @Override
-            public boolean accept(File dir,String name)
-            { 
-              return name.endsWith(".jar")
-                || name.endsWith(".dll")
-                || name.endsWith(".so")
-                ;
-            }
-          }
-          );
+    long start=System.nanoTime();
+    File[] libs=listLibraryFiles(new File(codebaseRootPath));
 
     codebaseLibraries.clear();
+    directoryTree=null;
+    generation++;
+    index=null;
+    indexedModules=null;
+    indexed=false;
 
     if (libs!=null)
     {
@@ -216,6 +576,7 @@ public class LibraryCatalog
   
       }
     }
+    discoveryTimeMillis=(System.nanoTime()-start)/1000000;
 
   }
 
@@ -238,8 +599,16 @@ public class LibraryCatalog
   }
 
   /**
-   * Implementation of LibraryClasspath- uses a subset of the LibraryCatalog
+   * <p>Implementation of LibraryClasspath- uses a subset of the LibraryCatalog
    *   to load classes and resources.
+   * </p>
+   * 
+   * <p>Lookups hold a read lock while they consult the resource map, and 
+   *   adding libraries and release() hold the write lock, so concurrent
+   *   class loading never observes a partially updated classpath. Resource
+   *   data is read outside the lock- the module open count keeps a jar 
+   *   open for the duration of a read that overlaps a release().
+   * </p>
    */
   class LibraryClasspathImpl
     implements LibraryClasspath
@@ -247,6 +616,9 @@ public class LibraryCatalog
     private final ClassLog log
       =ClassLog.getInstance(LibraryClasspathImpl.class);
     
+    private final ReentrantReadWriteLock lock
+      =new ReentrantReadWriteLock();
+    
     private final ListMap<String,Resource> resources
       =new ListMap<String,Resource>();
 
@@ -256,16 +628,44 @@ public class LibraryCatalog
 
     private boolean debug;
     
+    private final LongAdder classesLoaded=new LongAdder();
+    private final LongAdder resourcesLoaded=new LongAdder();
+    private final LongAdder bytesLoaded=new LongAdder();
+    private final LongAdder lookupHits=new LongAdder();
+    private final LongAdder lookupMisses=new LongAdder();
+    private final TimingHistogram loadTime=new TimingHistogram();
+    private ObjectName mbeanName;
+    private boolean released;
+    
+    LibraryClasspathImpl()
+    { 
+      classpathsCreated.increment();
+      activeClasspaths.increment();
+      mbeanName
+        =LauncherMBeans.register
+          (new ClasspathManagement()
+          ,"type=LibraryClasspath,catalog="+mbeanId
+            +",id="+LauncherMBeans.nextId()
+          );
+    }
+    
     @Override
     public String getClassPath()
     {
       StringBuffer buf=new StringBuffer();
-      for (Module module:classpathLibraries)
-      { 
-        if (buf.length()>0)
-        { buf.append(":");
+      lock.readLock().lock();
+      try
+      {
+        for (Module module:classpathLibraries)
+        { 
+          if (buf.length()>0)
+          { buf.append(":");
+          }
+          buf.append(module.getPath());
         }
-        buf.append(module.getPath());
+      }
+      finally
+      { lock.readLock().unlock();
       }
       return buf.toString();
     }
@@ -275,27 +675,80 @@ public class LibraryCatalog
     { this.debug=debug;
     }
     
+    @Override
+    public String getModuleName(String path)
+    { 
+      Resource resource=getFirst(path);
+      return resource!=null?resource.module.name:null;
+    }
+    
+    @Override
+    public List<String> listResourceNames()
+    {
+      LinkedHashSet<String> names=new LinkedHashSet<String>();
+      lock.readLock().lock();
+      try
+      {
+        for (Module library:classpathLibraries)
+        { names.addAll(library.resources.keySet());
+        }
+      }
+      finally
+      { lock.readLock().unlock();
+      }
+      return new ArrayList<String>(names);
+    }
+    
+    private Resource getFirst(String path)
+    {
+      lock.readLock().lock();
+      try
+      { return resources.getFirst(path);
+      }
+      finally
+      { lock.readLock().unlock();
+      }
+    }
+    
     @Override
     public void release()
     {
       if (debug)
       { log.fine("Releasing...");
       }
+      if (mbeanName!=null)
+      { 
+        LauncherMBeans.unregister(mbeanName);
+        mbeanName=null;
+      }
       
-      for (Module library: classpathLibraries)
+      lock.writeLock().lock();
+      try
       {
-        try
+        if (!released)
         { 
-          if (debug)
-          { log.fine("Closing "+library.name);
+          released=true;
+          activeClasspaths.decrement();
+        }
+        
+        for (Module library: classpathLibraries)
+        {
+          try
+          { 
+            if (debug)
+            { log.fine("Closing "+library.name);
+            }
+            library.close();
           }
-          library.close();
+          catch (IOException x)
+          { }
         }
-        catch (IOException x)
-        { }
+        classpathLibraries.clear();
+        resources.clear();
+      }
+      finally
+      { lock.writeLock().unlock();
       }
-      classpathLibraries.clear();
-      resources.clear();
     }
     
     @Override
@@ -303,9 +756,20 @@ public class LibraryCatalog
       throws IOException
     {
       assertOpen();
-      Resource resource=resources.getFirst(path);
+      long start=System.nanoTime();
+      Resource resource=getFirst(path);
+      ClassLoadProfile profile=ClassLoadProfile.getActive();
       if (resource==null)
-      { throw new IOException("Not found: "+path);
+      { 
+        lookupMisses.increment();
+        if (profile!=null)
+        { profile.lookup(null);
+        }
+        throw new IOException("Not found: "+path);
+      }
+      lookupHits.increment();
+      if (profile!=null)
+      { profile.lookup(resource.module.name);
       }
       if (debug)
       { 
@@ -313,7 +777,21 @@ public class LibraryCatalog
           ("Loading data from  "+resource.module.path+"!"+resource.name);
       }
       try
-      { return resource.getData();
+      { 
+        byte[] data=resource.getData();
+        if (path.endsWith(".class"))
+        { classesLoaded.increment();
+        }
+        else
+        { resourcesLoaded.increment();
+        }
+        bytesLoaded.add(data.length);
+        long elapsed=System.nanoTime()-start;
+        loadTime.record(elapsed);
+        if (profile!=null)
+        { profile.dataLoaded(resource.module.name,data.length,elapsed);
+        }
+        return data;
       }
       catch (IllegalStateException x)
       { throw new IllegalStateException("Exception loading "+path,x);
@@ -324,9 +802,19 @@ public class LibraryCatalog
     public URL getResource(String path)
       throws IOException
     {
-      Resource resource=resources.getFirst(path);
+      Resource resource=getFirst(path);
+      ClassLoadProfile profile=ClassLoadProfile.getActive();
       if (resource==null)
-      { return null;
+      { 
+        lookupMisses.increment();
+        if (profile!=null)
+        { profile.lookup(null);
+        }
+        return null;
+      }
+      lookupHits.increment();
+      if (profile!=null)
+      { profile.lookup(resource.module.name);
       }
       if (debug)
       {
@@ -342,8 +830,37 @@ public class LibraryCatalog
     public Enumeration<URL> getResources(String path)
       throws IOException
     {
-      List<Resource> resourceList=resources.get(path);
+      List<Resource> resourceList=null;
+      lock.readLock().lock();
+      try
+      { 
+        List<Resource> list=resources.get(path);
+        if (list!=null)
+        { resourceList=new ArrayList<Resource>(list);
+        }
+      }
+      finally
+      { lock.readLock().unlock();
+      }
       List<URL> urlList=new LinkedList<URL>();
+      ClassLoadProfile profile=ClassLoadProfile.getActive();
+      if (resourceList==null || resourceList.isEmpty())
+      { 
+        lookupMisses.increment();
+        if (profile!=null)
+        { profile.lookup(null);
+        }
+      }
+      else
+      { 
+        lookupHits.increment();
+        if (profile!=null)
+        {
+          for (Resource resource:resourceList)
+          { profile.lookup(resource.module.name);
+          }
+        }
+      }
       if (resourceList!=null)
       {
         for (Resource resource:resourceList)
@@ -420,19 +937,26 @@ public class LibraryCatalog
     private void addLibrary(Module library)
       throws IOException
     {
-      if (classpathLibraries.contains(library))
-      { return;
+      lock.writeLock().lock();
+      try
+      {
+        if (classpathLibraries.contains(library))
+        { return;
+        }
+        
+        if (debug)
+        { log.fine("Adding library "+library.path+" to classpath");
+        }
+        
+        library.open();
+        classpathLibraries.add(library);
+        
+        for (Entry<String, Resource> entry:library.resources.entrySet())
+        { resources.add(entry.getKey(),entry.getValue());
+        }
       }
-      
-      if (debug)
-      { log.fine("Adding library "+library.path+" to classpath");
-      }
-      
-      library.open();
-      classpathLibraries.add(library);
-      
-      for (Entry<String, Resource> entry:library.resources.entrySet())
-      { resources.add(entry.getKey(),entry.getValue());
+      finally
+      { lock.writeLock().unlock();
       }
       
       String[] dependencies
@@ -462,7 +986,24 @@ public class LibraryCatalog
     { 
       List<Module> libraries=new LinkedList<Module>();
 
-      Iterator<Module> it=codebaseLibraries.iterator();
+      // An indexed catalog knows which libraries contain a class's package,
+      //   so only those need to be searched
+      List<Module> candidates=null;
+      int slash=resourcePath.lastIndexOf('/');
+      if (resourcePath.endsWith(".class") 
+          && slash>0
+          && !resourcePath.startsWith("META-INF/")
+          )
+      { 
+        candidates
+          =findPackageOwners
+            (resourcePath.substring(0,slash).replace('/','.'));
+      }
+      if (candidates==null)
+      { candidates=codebaseLibraries;
+      }
+      
+      Iterator<Module> it=candidates.iterator();
       while (it.hasNext())
       { 
         Module library=it.next();
@@ -496,7 +1037,69 @@ public class LibraryCatalog
       
     }
 
+    /**
+     * Exposes classpath statistics through JMX
+     */
+    private class ClasspathManagement
+      implements LibraryClasspathMXBean
+    {
+      @Override
+      public String getClassPath()
+      { return LibraryClasspathImpl.this.getClassPath();
+      }
 
+      @Override
+      public int getModuleCount()
+      { 
+        lock.readLock().lock();
+        try
+        { return classpathLibraries.size();
+        }
+        finally
+        { lock.readLock().unlock();
+        }
+      }
+
+      @Override
+      public long getClassesLoaded()
+      { return classesLoaded.sum();
+      }
+
+      @Override
+      public long getResourcesLoaded()
+      { return resourcesLoaded.sum();
+      }
+
+      @Override
+      public long getBytesLoaded()
+      { return bytesLoaded.sum();
+      }
+
+      @Override
+      public long getLookupHits()
+      { return lookupHits.sum();
+      }
+
+      @Override
+      public long getLookupMisses()
+      { return lookupMisses.sum();
+      }
+
+      @Override
+      public long[] getLoadTimeHistogram()
+      { return loadTime.getCounts();
+      }
+
+      @Override
+      public double getMeanLoadTimeMicros()
+      { return loadTime.getMeanMicros();
+      }
+
+      @Override
+      public String[] getTimingBuckets()
+      { return TimingHistogram.getBucketLabels();
+      }
+    }
   }
 
 }
@@ -514,13 +1117,21 @@ class JarModule
 {
 
   int openCount=0;
+  int forcedOpenCount=0;
   JarFile jarFile;
   Manifest manifest;
+  String[] libraryDependencies;
+  boolean dependenciesCataloged;
 
   public JarModule(File file)
     throws IOException
+  { this(file,true);
+  }
+  
+  JarModule(File file,boolean catalog)
+    throws IOException
   { 
-    super(file);
+    super(file,catalog);
 
     name=file.getName();
     if (name.endsWith(".jar"))
@@ -539,6 +1150,19 @@ class JarModule
     }
   }
   
+  /**
+   * Open the module for a read, returning the JarFile to read from. The
+   *   caller must call close() when the read is complete. Reads use the 
+   *   returned reference rather than the field, which may be cleared 
+   *   concurrently by forceClose().
+   */
+  private synchronized JarFile acquire()
+    throws IOException
+  {
+    open();
+    return jarFile;
+  }
+  
   @Override
   public void catalogResources()
     throws IOException
@@ -553,8 +1177,7 @@ class JarModule
         JarEntry jarEntry
           =entries.nextElement();
         JarResource resource
-          =new JarResource();
-        resource.entry=jarEntry;
+          =new JarResource(jarEntry);
         resource.name=jarEntry.getName();
         if (resource.name.endsWith("/"))
         { resource.name=resource.name.substring(0,resource.name.length()-1);
@@ -562,6 +1185,7 @@ class JarModule
         resource.module=this;
         resources.put(resource.name,resource);
       }
+      catalogVersion();
     }
     finally
     { 
@@ -573,14 +1197,49 @@ class JarModule
    
   }
 
+  /**
+   * Extract the version information while the jar is open for cataloging,
+   *   so reporting versions doesn't need to reopen every jar. A failure 
+   *   leaves it to be read on demand.
+   */
+  private void catalogVersion()
+  {
+    JarEntry entry=jarFile.getJarEntry(VERSION_RESOURCE);
+    if (entry==null)
+    { 
+      versionCataloged=true;
+      return;
+    }
+    
+    try (InputStream in=jarFile.getInputStream(entry))
+    {
+      Properties properties=new Properties();
+      properties.load(in);
+      versionProperties=properties;
+      versionCataloged=true;
+    }
+    catch (IOException | IllegalArgumentException x)
+    { 
+    }
+  }
+  
   @Override
   public synchronized void open()
     throws IOException
   { 
     if (openCount==0)
     { 
+      ModuleOpenEvent event=new ModuleOpenEvent();
+      event.begin();
       openJar();
       readManifest();
+      event.end();
+      if (event.shouldCommit())
+      {
+        event.path=path;
+        event.action="open";
+        event.commit();
+      }
     }
     openCount++;
   }
@@ -589,15 +1248,41 @@ class JarModule
   public synchronized void close()
     throws IOException
   {
+    if (forcedOpenCount>0)
+    { 
+      // Balances an open() released early by forceClose()
+      forcedOpenCount--;
+      return;
+    }
+    if (openCount==0)
+    { return;
+    }
     openCount--;
     if (openCount==0)
     { 
       // ClassLog.getInstance(getClass()).fine("Closing "+jarFile.getName());
+      ModuleOpenEvent event=new ModuleOpenEvent();
+      event.begin();
       jarFile.close();
       jarFile=null;
+      event.end();
+      if (event.shouldCommit())
+      {
+        event.path=path;
+        event.action="close";
+        event.commit();
+      }
     }
   }
 
+  synchronized boolean isJarOpen()
+  { return jarFile!=null;
+  }
+  
+  synchronized int getOpenCount()
+  { return openCount;
+  }
+  
   @Override
   public synchronized void forceClose()
     throws IOException
@@ -606,43 +1291,192 @@ class JarModule
     { 
       // ClassLog.getInstance(getClass()).fine("Force closing "+jarFile.getName());
       
+      ModuleOpenEvent event=new ModuleOpenEvent();
+      event.begin();
       jarFile.close();
       jarFile=null;
+      forcedOpenCount+=openCount;
       openCount=0;
+      event.end();
+      if (event.shouldCommit())
+      {
+        event.path=path;
+        event.action="forceClose";
+        event.commit();
+      }
         
     }
   }
   
-  public byte[] getData(JarEntry entry)
+  public byte[] getData(JarResource resource)
     throws IOException
   {
-    BufferedInputStream in=null;
-    open();
+    JarFile jar=acquire();
     try
     {
-      in = new BufferedInputStream(jarFile.getInputStream(entry));
+      JarEntry entry=getEntry(jar,resource);
+      InputStream in=jar.getInputStream(entry);
+      try
+      {
+        // Size from the live entry, as the jar may have been replaced
+        //   since the resource was cataloged or indexed
+        long size=entry.getSize();
+        if (size<0)
+        { return in.readAllBytes();
+        }
+        byte[] data = new byte[(int) size];
+        new DataInputStream(in).readFully(data);
+        return data;
+      }
+      finally
+      { in.close();
+      }
+    }
+    finally
+    { close();
+    }
 
-      byte[] data = new byte[(int) entry.getSize()];
-      in.read(data);
-      in.close();
-      in=null;
-      return data;
+  }
+  
+  /**
+   * <p>Open a stream to the specified range of the resource data. For
+   *   STORED entries, skipping to the offset is a positional seek; 
+   *   compressed entries must be inflated up to the offset.
+   * </p>
+   * 
+   * <p>The module remains open until the stream is closed.
+   * </p>
+   */
+  public InputStream getInputStream(JarResource resource,long offset,long length)
+    throws IOException
+  {
+    JarFile jar=acquire();
+    boolean opened=false;
+    try
+    {
+      InputStream in=jar.getInputStream(getEntry(jar,resource));
+      long skipped=0;
+      while (skipped<offset)
+      { 
+        long count=in.skip(offset-skipped);
+        if (count<=0)
+        { break;
+        }
+        skipped+=count;
+      }
+      InputStream stream=new ModuleInputStream(in,length);
+      opened=true;
+      return stream;
     }
     finally
+    {
+      if (!opened)
+      { close();
+      }
+    }
+  }
+  
+  private JarEntry getEntry(JarFile jar,JarResource resource)
+    throws IOException
+  {
+    JarEntry entry=jar.getJarEntry(resource.getEntryName());
+    if (entry==null)
     { 
-      if (in!=null)
-      {
-        try
-        { in.close();
-        }
-        catch (IOException y)
-        { }
-        in=null;
+      throw new IOException
+        ("Entry "+resource.getEntryName()+" no longer exists in "+path);
+    }
+    return entry;
+  }
+  
+  /**
+   * Limits reading to a range of the resource and releases the module when
+   *   closed.
+   */
+  private class ModuleInputStream
+    extends FilterInputStream
+  {
+    private long remaining;
+    private boolean closed;
+    
+    ModuleInputStream(InputStream in,long length)
+    { 
+      super(in);
+      this.remaining=length;
+    }
+    
+    @Override
+    public int read()
+      throws IOException
+    {
+      if (remaining==0)
+      { return -1;
+      }
+      int b=super.read();
+      if (b>=0 && remaining>0)
+      { remaining--;
+      }
+      return b;
+    }
+    
+    @Override
+    public int read(byte[] buf,int off,int len)
+      throws IOException
+    {
+      if (remaining==0)
+      { return -1;
+      }
+      if (remaining>0 && len>remaining)
+      { len=(int) remaining;
+      }
+      int count=super.read(buf,off,len);
+      if (count>0 && remaining>0)
+      { remaining-=count;
+      }
+      return count;
+    }
+    
+    @Override
+    public long skip(long n)
+      throws IOException
+    {
+      if (remaining>=0 && n>remaining)
+      { n=remaining;
+      }
+      long count=super.skip(n);
+      if (count>0 && remaining>0)
+      { remaining-=count;
+      }
+      return count;
+    }
+    
+    @Override
+    public int available()
+      throws IOException
+    { 
+      int available=super.available();
+      return remaining>=0?(int) Math.min(available,remaining):available;
+    }
+    
+    @Override
+    public boolean markSupported()
+    { return false;
+    }
+    
+    @Override
+    public void close()
+      throws IOException
+    {
+      if (closed)
+      { return;
+      }
+      closed=true;
+      try
+      { super.close();
+      }
+      finally
+      { JarModule.this.close();
       }
-      
-      close();
     }
-
   }
 
   private void readManifest()
@@ -651,11 +1485,16 @@ class JarModule
   }
 
   /**
-   * Return the list of libraries that this library depends on
+   * Return the list of libraries that this library depends on. Unless 
+   *   the dependencies were restored from a CatalogIndex, this requires
+   *   the manifest, which is read when the module is opened.
    */
   @Override
   public String[] getLibraryDependencies()
   {
+    if (dependenciesCataloged)
+    { return libraryDependencies;
+    }
     if (manifest==null)
     { return null;
     }
@@ -671,6 +1510,25 @@ class JarModule
     return null;
   }
   
+  /**
+   * Return the list of libraries that this library depends on, opening 
+   *   the module to read the manifest if necessary
+   */
+  String[] readLibraryDependencies()
+    throws IOException
+  {
+    if (dependenciesCataloged)
+    { return libraryDependencies;
+    }
+    open();
+    try
+    { return getLibraryDependencies();
+    }
+    finally
+    { close();
+    }
+  }
+  
 
 }
 
@@ -681,8 +1539,13 @@ class NativeLibrary
 
   public NativeLibrary(File file)
     throws IOException
+  { this(file,true);
+  }
+  
+  NativeLibrary(File file,boolean catalog)
+    throws IOException
   { 
-    super(file);
+    super(file,catalog);
     name=file.getName();
     if (name.endsWith(".dll"))
     { name=name.substring(0,name.length()-4);
@@ -699,7 +1562,7 @@ class NativeLibrary
   @Override
   public void catalogResources()
     throws IOException
-  {
+  { versionCataloged=true;
   }
 
   @Override
@@ -766,12 +1629,61 @@ class FileModule
 class JarResource
   extends Resource
 {
-  JarEntry entry;
+  private final boolean directory;
+  private final long size;
+  private final long crc;
+  private final long time;
+  private final boolean stored;
+  
+  JarResource(JarEntry entry)
+  { 
+    directory=entry.isDirectory();
+    size=entry.getSize();
+    crc=entry.getCrc();
+    time=entry.getTime();
+    stored=entry.getMethod()==ZipEntry.STORED;
+  }
+  
+  /**
+   * Restore a resource from a CatalogIndex
+   */
+  JarResource(boolean directory,long size,long crc,long time,boolean stored)
+  {
+    this.directory=directory;
+    this.size=size;
+    this.crc=crc;
+    this.time=time;
+    this.stored=stored;
+  }
+  
+  boolean isDirectory()
+  { return directory;
+  }
+  
+  /**
+   * The modification time recorded in the jar entry, or -1 if none
+   */
+  long getTime()
+  { return time;
+  }
+  
+  /**
+   * The name of the entry in the jar file
+   */
+  String getEntryName()
+  { return directory?name+"/":name;
+  }
   
   @Override
   public byte[] getData()
     throws IOException
-  { return ((JarModule) module).getData(entry);
+  { return ((JarModule) module).getData(this);
+  }
+  
+  @Override
+  public InputStream getInputStream(long offset,long length)
+    throws IOException
+  { return ((JarModule) module).getInputStream(this,offset,length);
   }
 
   @Override
@@ -779,6 +1691,26 @@ class JarResource
     throws IOException
   { return new URL("jar:"+module.uri+"!/"+name);
   }
+  
+  @Override
+  public long getSize()
+  { return size;
+  }
+
+  @Override
+  public long getLastModified()
+  { return time>=0?time:module.getLastModified();
+  }
+  
+  @Override
+  public long getCrc()
+  { return crc;
+  }
+  
+  @Override
+  public boolean isStored()
+  { return stored;
+  }
 }
 
 class FileResource
@@ -796,6 +1728,26 @@ class FileResource
     throws IOException
   { return new URL("file:/"+URIUtil.addPathSegment(module.uri,name));
   }
+  
+  @Override
+  public long getSize()
+  { return file!=null?file.length():0;
+  }
+
+  @Override
+  public long getLastModified()
+  { return file!=null?file.lastModified():module.getLastModified();
+  }
+  
+  @Override
+  public long getCrc()
+  { return -1;
+  }
+  
+  @Override
+  public boolean isStored()
+  { return true;
+  }
 
 }
 
@@ -0,0 +1,58 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+/**
+ * <p>Management interface for a LibraryCatalog
+ * </p>
+ */
+public interface LibraryCatalogMXBean
+{
+  String getPath();
+  
+  int getModuleCount();
+  
+  /**
+   * Total entries cataloged across all modules
+   */
+  int getResourceCount();
+  
+  /**
+   * Number of jar modules whose JarFile is currently open
+   */
+  int getOpenJarCount();
+  
+  /**
+   * Sum of the open counts of all modules, ie. outstanding references
+   *   held by classpaths
+   */
+  int getModuleReferenceCount();
+  
+  int getGeneration();
+  
+  /**
+   * Duration of the last module discovery
+   */
+  long getDiscoveryTimeMillis();
+  
+  /**
+   * LibraryClasspaths created and not yet released
+   */
+  long getActiveClasspathCount();
+  
+  long getClasspathsCreated();
+  
+  boolean isClosed();
+}
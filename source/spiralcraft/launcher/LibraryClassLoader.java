@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.net.URL;
 import java.util.Enumeration;
 import java.util.LinkedList;
+import java.util.List;
 
 import spiralcraft.main.LauncherClassLoader;
 
@@ -29,10 +30,18 @@ import spiralcraft.main.LauncherClassLoader;
  * <p>Loads classes contained in the Library
  * </p>
  * 
+ * <p>The LibraryClassLoader is parallel capable- classes are loaded under
+ *   a per-class-name lock, and the underlying LibraryClasspath is safe
+ *   for concurrent lookups, including lookups that overlap shutdown().
+ * </p>
  */
 public class LibraryClassLoader
   extends LauncherClassLoader
 {
+  static
+  { registerAsParallelCapable();
+  }
+  
   private final LibraryClasspath libraryClasspath;
 
   public LibraryClassLoader(LibraryCatalog libraryCatalog)
@@ -71,6 +80,42 @@ public class LibraryClassLoader
   { return libraryClasspath.loadData(path);
   }
 
+  @Override
+  protected void classDefined
+    (String name,int bytes,long loadNanos,long defineNanos)
+  {
+    ClassLoadProfile profile=ClassLoadProfile.getActive();
+    if (profile!=null)
+    { 
+      profile.classDefined
+        (name
+        ,libraryClasspath.getModuleName(name.replace('.','/')+".class")
+        ,bytes
+        ,loadNanos
+        ,defineNanos
+        );
+    }
+  }
+  
+  @Override
+  protected Class<?> loadClass(String name,boolean resolve)
+    throws ClassNotFoundException
+  {
+    Class<?> clazz=super.loadClass(name,resolve);
+    ClassLoadProfile profile=ClassLoadProfile.getActive();
+    if (profile!=null && clazz.getClassLoader()!=this)
+    { profile.delegated(name);
+    }
+    return clazz;
+  }
+  
+  @Override
+  protected String findSource(String path)
+  { 
+    URL url=findResource(path);
+    return url!=null?url.toString():null;
+  }
+
   @Override
   protected URL findResource(String path)
   { 
@@ -108,6 +153,14 @@ public class LibraryClassLoader
     return in;
   }
 
+  /**
+   * The paths of all the resources in the modules on this ClassLoader's
+   *   library classpath
+   */
+  public List<String> listResourceNames()
+  { return libraryClasspath.listResourceNames();
+  }
+  
   public void resolveLibrariesForClass(String className)
     throws IOException
   {
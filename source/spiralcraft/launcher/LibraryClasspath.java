@@ -17,6 +17,7 @@ package spiralcraft.launcher;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Enumeration;
+import java.util.List;
 
 /**
  * Resolves class and resource data from a set of libraries
@@ -72,4 +73,16 @@ public interface LibraryClasspath
     throws IOException;
  
   String getClassPath();
+  
+  /**
+   * The name of the module that supplies the specified resource, or null
+   *   if no module on this classpath contains it
+   */
+  String getModuleName(String path);
+  
+  /**
+   * The paths of all the resources in the libraries on this classpath,
+   *   each listed once
+   */
+  List<String> listResourceNames();
 }
@@ -0,0 +1,59 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+/**
+ * <p>Management interface for a LibraryClasspath, which supplies the
+ *   classes and resources of a LibraryClassLoader
+ * </p>
+ */
+public interface LibraryClasspathMXBean
+{
+  String getClassPath();
+  
+  int getModuleCount();
+  
+  /**
+   * Class files read through this classpath, ie. classes defined by
+   *   the associated LibraryClassLoader
+   */
+  long getClassesLoaded();
+  
+  /**
+   * Non-class resources read through this classpath
+   */
+  long getResourcesLoaded();
+  
+  long getBytesLoaded();
+  
+  /**
+   * Lookups that found a resource
+   */
+  long getLookupHits();
+  
+  /**
+   * Lookups that did not find a resource
+   */
+  long getLookupMisses();
+  
+  /**
+   * Counts of data load durations, bucketed per getTimingBuckets()
+   */
+  long[] getLoadTimeHistogram();
+  
+  double getMeanLoadTimeMicros();
+  
+  String[] getTimingBuckets();
+}
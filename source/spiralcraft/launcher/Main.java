@@ -19,6 +19,7 @@ import spiralcraft.common.DisposableContext;
 import spiralcraft.data.persist.AbstractXmlObject;
 import spiralcraft.exec.ExecutionContext;
 import spiralcraft.main.Spiralcraft;
+import spiralcraft.main.StartupTimeline;
 
 import spiralcraft.lang.reflect.BeanFocus;
 
@@ -64,6 +65,7 @@ import java.net.URI;
  */
 public class Main
 {
+  private static final int CLASS_PROFILE_TOP=20;
   
 
   static
@@ -113,8 +115,10 @@ public class Main
       print(" ");
     }
       
+    long start=StartupTimeline.start();
     final ApplicationManager applicationManager
       =new ApplicationManager("root",codebase);
+    StartupTimeline.end("launcher.ApplicationManager",start);
     applicationManager.setViewTitle(ArrayUtil.format(args," "," ")+" : "+codebase.toURI());
 
     if (Spiralcraft.DEBUG)
@@ -160,10 +164,20 @@ public class Main
     
     }
     
+    ClassLoadProfile classLoadProfile
+      =Spiralcraft.CLASS_PROFILE?ClassLoadProfile.start():null;
+    
     try
     {
       final LauncherThreadGroup group
         =new LauncherThreadGroup();
+      if (Spiralcraft.VIRTUAL_THREADS)
+      { 
+        group.setVirtualThreads(true);
+        if (!LauncherThreadGroup.isVirtualThreadSupported())
+        { print("Virtual threads not supported by this JVM, ignoring");
+        }
+      }
         
       group.run
         (new Runnable()
@@ -227,10 +241,24 @@ public class Main
           }
         }
         );
-        
+      
+      if (Spiralcraft.RESOURCE_USAGE)
+      { 
+        print("Resource usage: launcher thread group: "
+          +group.getResourceUsage()
+          +" peak-threads="+group.getPeakThreadCount()
+          );
+      }
     }
     finally
     { 
+      if (classLoadProfile!=null)
+      { 
+        classLoadProfile.stop();
+        print(" ");
+        classLoadProfile.report(Spiralcraft.err,CLASS_PROFILE_TOP);
+      }
+      
       // XXX There may be threads still running that were spawned by
       //   Class inits in the LibraryClassLoader instance that will
       //   throw exceptions if they try to load classes past this point
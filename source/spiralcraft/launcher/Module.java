@@ -13,10 +13,12 @@
 // 
 package spiralcraft.launcher;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.Properties;
 
 public abstract class Module
 {
@@ -26,15 +28,48 @@ public abstract class Module
   protected long lastModified;
   protected HashMap<String,Resource> resources
     =new HashMap<String,Resource>();
+  
+  /**
+   * The SCM version information resource written into each module by 
+   *   the build
+   */
+  public static final String VERSION_RESOURCE
+    ="META-INF/spiralcraft-scm/version.properties";
+  
+  protected Properties versionProperties;
+  protected boolean versionCataloged;
 
   public Module(File file)
     throws IOException
+  { this(file,true);
+  }
+  
+  /**
+   * <p>Create a Module, optionally without cataloging its resources, for
+   *   a Module whose catalog data is restored from a CatalogIndex.
+   * </p>
+   */
+  protected Module(File file,boolean catalog)
+    throws IOException
   { 
     path=file.getAbsolutePath();
     uri=file.getAbsoluteFile().toURI();
     name=file.getName();
     lastModified=file.lastModified();
+    if (!catalog)
+    { return;
+    }
+    
+    ModuleCatalogEvent event=new ModuleCatalogEvent();
+    event.begin();
     catalogResources();
+    event.end();
+    if (event.shouldCommit())
+    {
+      event.path=path;
+      event.entries=resources.size();
+      event.commit();
+    }
   }
 
   /**
@@ -76,5 +111,47 @@ public abstract class Module
   public Resource getResource(String name)
   { return resources.get(name);
   }
+  
+  /**
+   * Whether the version information was extracted when the module was
+   *   cataloged. If not, it can be read with readVersionProperties().
+   */
+  public boolean isVersionCataloged()
+  { return versionCataloged;
+  }
+  
+  /**
+   * The contents of the VERSION_RESOURCE extracted when the module was 
+   *   cataloged, or null if the module has none or the version was not
+   *   cataloged.
+   */
+  public Properties getVersionProperties()
+  { return versionProperties;
+  }
+  
+  /**
+   * Read the contents of the VERSION_RESOURCE from the module, or return
+   *   null if the module has none. The result is retained, so subsequent
+   *   calls to getVersionProperties() return it.
+   */
+  public Properties readVersionProperties()
+    throws IOException
+  {
+    if (versionCataloged)
+    { return versionProperties;
+    }
+    
+    Properties properties=null;
+    Resource resource=getResource(VERSION_RESOURCE);
+    byte[] data=resource!=null?resource.getData():null;
+    if (data!=null)
+    {
+      properties=new Properties();
+      properties.load(new ByteArrayInputStream(data));
+    }
+    versionProperties=properties;
+    versionCataloged=true;
+    return properties;
+  }
 }
 
@@ -0,0 +1,40 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event emitted when the LibraryCatalog catalogs the 
+ *   contents of a module
+ */
+@Name("spiralcraft.launcher.ModuleCatalog")
+@Label("Module Catalog")
+@Category({"Spiralcraft","Launcher"})
+@Description("The contents of a codebase module were cataloged")
+@StackTrace(false)
+class ModuleCatalogEvent
+  extends jdk.jfr.Event
+{
+  @Label("Path")
+  String path;
+  
+  @Label("Entries")
+  int entries;
+}
@@ -0,0 +1,41 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event emitted when a JarModule opens or closes its
+ *   underlying JarFile
+ */
+@Name("spiralcraft.launcher.ModuleOpen")
+@Label("Module Open/Close")
+@Category({"Spiralcraft","Launcher"})
+@Description("A codebase module jar was opened or closed")
+@StackTrace(false)
+class ModuleOpenEvent
+  extends jdk.jfr.Event
+{
+  @Label("Path")
+  String path;
+  
+  @Label("Action")
+  @Description("open, close or forceClose")
+  String action;
+}
@@ -13,7 +13,9 @@
 // 
 package spiralcraft.launcher;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 
 public abstract class Resource
@@ -27,4 +29,63 @@ public abstract class Resource
   public abstract URL getResource()
     throws IOException;
   
+  /**
+   * The uncompressed size of the resource data in bytes, or -1 if it is
+   *   not known until the data is read, as with ZipEntry.getSize()
+   */
+  public abstract long getSize();
+  
+  /**
+   * The modification time of the resource, in milliseconds since the epoch
+   */
+  public abstract long getLastModified();
+  
+  /**
+   * The CRC-32 of the resource data, or -1 if unknown
+   */
+  public abstract long getCrc();
+  
+  /**
+   * Whether the resource data is stored uncompressed, so that reads of a
+   *   range of the data do not require decompressing the data before it.
+   */
+  public abstract boolean isStored();
+  
+  /**
+   * Stream the resource data
+   */
+  public InputStream getInputStream()
+    throws IOException
+  { return getInputStream(0,-1);
+  }
+  
+  /**
+   * <p>Stream a range of the resource data.
+   * </p>
+   * 
+   * @param offset The position of the first byte to read
+   * @param length The maximum number of bytes to read, or -1 to read to the
+   *   end of the data
+   */
+  public InputStream getInputStream(long offset,long length)
+    throws IOException
+  { 
+    // Bounded by the data actually read rather than getSize(), which may
+    //   be -1
+    if (offset<0)
+    { throw new IllegalArgumentException("Negative offset "+offset);
+    }
+    byte[] data=getData();
+    if (data==null)
+    { throw new IOException("No data for "+name);
+    }
+    int start=(int) Math.min(offset,data.length);
+    int count
+      =length<0
+      ?data.length-start
+      :(int) Math.min(length,data.length-start)
+      ;
+    return new ByteArrayInputStream(data,start,count);
+  }
+  
 }
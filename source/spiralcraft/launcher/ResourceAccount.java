@@ -0,0 +1,126 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Accumulates the CPU time and heap allocation of the threads that work
+ *   on behalf of one launch.
+ * </p>
+ * 
+ * <p>The account is current on the launching thread while the environment
+ *   executes. A thread created through LauncherThreadGroup's ThreadFactory
+ *   interface is charged to the account that was current on the thread 
+ *   which created it, and to the accounts enclosing that one, so a nested
+ *   launch (eg. a batch command) is also included in its parent.
+ * </p>
+ * 
+ * <p>Threads constructed directly by application code are not charged to
+ *   any account.
+ * </p>
+ */
+class ResourceAccount
+{
+  private static final ThreadLocal<ResourceAccount> CURRENT
+    =new ThreadLocal<ResourceAccount>();
+  
+  /**
+   * The account current on this thread, or null if none
+   */
+  static ResourceAccount current()
+  { return CURRENT.get();
+  }
+  
+  private final ResourceAccount parent;
+  private final Set<Thread> liveThreads=ConcurrentHashMap.newKeySet();
+  private final LongAdder exitedCpuTime=new LongAdder();
+  private final LongAdder exitedAllocatedBytes=new LongAdder();
+  private final LongAdder exitedThreads=new LongAdder();
+  
+  /**
+   * Create an account enclosed by the account current on this thread
+   */
+  ResourceAccount()
+  { this.parent=current();
+  }
+  
+  /**
+   * Make this account current on this thread, returning the account it
+   *   replaces, which must be passed to restore() when done.
+   */
+  ResourceAccount enter()
+  { 
+    ResourceAccount previous=CURRENT.get();
+    CURRENT.set(this);
+    return previous;
+  }
+  
+  static void restore(ResourceAccount previous)
+  { 
+    if (previous!=null)
+    { CURRENT.set(previous);
+    }
+    else
+    { CURRENT.remove();
+    }
+  }
+  
+  /**
+   * Charge the current thread to this account and its enclosing accounts
+   *   until threadExited() is called
+   */
+  void threadStarted()
+  {
+    Thread thread=Thread.currentThread();
+    for (ResourceAccount account=this;account!=null;account=account.parent)
+    { account.liveThreads.add(thread);
+    }
+  }
+  
+  void threadExited(long cpuTime,long allocatedBytes)
+  {
+    Thread thread=Thread.currentThread();
+    for (ResourceAccount account=this;account!=null;account=account.parent)
+    { 
+      account.exitedCpuTime.add(cpuTime);
+      account.exitedAllocatedBytes.add(allocatedBytes);
+      account.exitedThreads.increment();
+      account.liveThreads.remove(thread);
+    }
+  }
+  
+  /**
+   * The usage of the charged threads that have exited, plus that of the
+   *   charged threads that are still alive
+   */
+  ResourceUsage getUsage()
+  {
+    Thread[] threads=liveThreads.toArray(new Thread[0]);
+    long[] ids=new long[threads.length];
+    for (int i=0;i<threads.length;i++)
+    { ids[i]=threads[i].getId();
+    }
+    return ResourceUsage.ofThreads(ids).plus
+      (new ResourceUsage
+        (exitedCpuTime.sum()
+        ,exitedAllocatedBytes.sum()
+        ,exitedThreads.sum()
+        )
+      );
+  }
+}
@@ -0,0 +1,180 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * <p>An immutable measurement of the CPU time and heap allocation consumed
+ *   by one or more threads, as reported by the platform ThreadMXBean.
+ * </p>
+ * 
+ * <p>Measurements are only taken at well defined points (thread exit,
+ *   launch boundaries, or on request), so the cost of accounting is a
+ *   few native calls per thread rather than a continuous sampler.
+ * </p>
+ * 
+ * <p>CPU time is reported as -1 when unsupported or disabled in the JVM
+ *   and for virtual threads. Allocated bytes are reported as -1 when the
+ *   JVM does not provide com.sun.management.ThreadMXBean.
+ * </p>
+ */
+public final class ResourceUsage
+{
+  private static final ThreadMXBean THREAD_BEAN
+    =ManagementFactory.getThreadMXBean();
+  private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN
+    =THREAD_BEAN instanceof com.sun.management.ThreadMXBean
+    ?(com.sun.management.ThreadMXBean) THREAD_BEAN
+    :null
+    ;
+  
+  public static final ResourceUsage NONE=new ResourceUsage(0,0,0);
+  
+  /**
+   * The CPU time consumed by the current thread, in nanoseconds, or -1 if
+   *   not available.
+   */
+  public static long currentThreadCpuTime()
+  { 
+    if (!THREAD_BEAN.isCurrentThreadCpuTimeSupported()
+        || !THREAD_BEAN.isThreadCpuTimeEnabled()
+        )
+    { return -1;
+    }
+    return THREAD_BEAN.getCurrentThreadCpuTime();
+  }
+  
+  /**
+   * The number of heap bytes allocated by the current thread, or -1 if
+   *   not available.
+   */
+  public static long currentThreadAllocatedBytes()
+  {
+    if (ALLOCATION_BEAN==null
+        || !ALLOCATION_BEAN.isThreadAllocatedMemoryEnabled()
+        )
+    { return -1;
+    }
+    return ALLOCATION_BEAN.getThreadAllocatedBytes
+      (Thread.currentThread().getId());
+  }
+  
+  /**
+   * Measure the resources consumed by the current thread since it started
+   */
+  public static ResourceUsage currentThread()
+  { 
+    return new ResourceUsage
+      (currentThreadCpuTime(),currentThreadAllocatedBytes(),1);
+  }
+  
+  /**
+   * Measure the resources consumed by the specified live threads since
+   *   they started. Threads which have exited are not counted.
+   */
+  public static ResourceUsage ofThreads(long[] threadIds)
+  {
+    long cpu=-1;
+    if (THREAD_BEAN.isThreadCpuTimeSupported()
+        && THREAD_BEAN.isThreadCpuTimeEnabled()
+        )
+    {
+      cpu=0;
+      for (long id:threadIds)
+      { cpu+=Math.max(0,THREAD_BEAN.getThreadCpuTime(id));
+      }
+    }
+    
+    long allocated=-1;
+    if (ALLOCATION_BEAN!=null 
+        && ALLOCATION_BEAN.isThreadAllocatedMemoryEnabled()
+        )
+    {
+      allocated=0;
+      for (long bytes:ALLOCATION_BEAN.getThreadAllocatedBytes(threadIds))
+      { allocated+=Math.max(0,bytes);
+      }
+    }
+    return new ResourceUsage(cpu,allocated,threadIds.length);
+  }
+  
+  private final long cpuTime;
+  private final long allocatedBytes;
+  private final long threadCount;
+  
+  public ResourceUsage(long cpuTime,long allocatedBytes,long threadCount)
+  { 
+    this.cpuTime=cpuTime;
+    this.allocatedBytes=allocatedBytes;
+    this.threadCount=threadCount;
+  }
+  
+  /**
+   * CPU time in nanoseconds, or -1 if not measured
+   */
+  public long getCpuTime()
+  { return cpuTime;
+  }
+  
+  /**
+   * Heap bytes allocated, or -1 if not measured
+   */
+  public long getAllocatedBytes()
+  { return allocatedBytes;
+  }
+  
+  /**
+   * The number of threads measured
+   */
+  public long getThreadCount()
+  { return threadCount;
+  }
+  
+  public ResourceUsage plus(ResourceUsage other)
+  {
+    return new ResourceUsage
+      (combine(cpuTime,other.cpuTime,1)
+      ,combine(allocatedBytes,other.allocatedBytes,1)
+      ,threadCount+other.threadCount
+      );
+  }
+  
+  /**
+   * The resources consumed between an earlier measurement of the same
+   *   threads and this one.
+   */
+  public ResourceUsage since(ResourceUsage earlier)
+  {
+    return new ResourceUsage
+      (combine(cpuTime,earlier.cpuTime,-1)
+      ,combine(allocatedBytes,earlier.allocatedBytes,-1)
+      ,threadCount
+      );
+  }
+  
+  private static long combine(long a,long b,int sign)
+  { return (a<0 || b<0)?-1:a+sign*b;
+  }
+  
+  @Override
+  public String toString()
+  {
+    return "cpu="+(cpuTime<0?"n/a":(cpuTime/1000000)+"ms")
+      +" allocated="+(allocatedBytes<0?"n/a":(allocatedBytes/1024)+"KB")
+      +" threads="+threadCount;
+  }
+}
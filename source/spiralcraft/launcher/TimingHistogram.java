@@ -0,0 +1,125 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A concurrent histogram of durations with power-of-two microsecond
+ *   buckets. Bucket 0 counts durations under 1us, and bucket n counts
+ *   durations from 2^(n-1)us up to 2^n us. The last bucket is unbounded.
+ * </p>
+ * 
+ * <p>Recording is lock-free and uses striped counters, so it is suitable
+ *   for classloading and resource lookup paths that are hit from many
+ *   threads.
+ * </p>
+ */
+public class TimingHistogram
+{
+  public static final int BUCKETS=32;
+  
+  private final LongAdder[] buckets=new LongAdder[BUCKETS];
+  private final LongAdder totalNanos=new LongAdder();
+  
+  public TimingHistogram()
+  {
+    for (int i=0;i<BUCKETS;i++)
+    { buckets[i]=new LongAdder();
+    }
+  }
+  
+  /**
+   * Record a duration
+   */
+  public void record(long nanos)
+  { 
+    long micros=nanos/1000;
+    int bucket=micros<=0?0:64-Long.numberOfLeadingZeros(micros);
+    buckets[Math.min(bucket,BUCKETS-1)].increment();
+    totalNanos.add(nanos);
+  }
+  
+  /**
+   * Record the duration since the specified System.nanoTime()
+   */
+  public void recordSince(long startNanos)
+  { record(System.nanoTime()-startNanos);
+  }
+  
+  public long[] getCounts()
+  {
+    long[] counts=new long[BUCKETS];
+    for (int i=0;i<BUCKETS;i++)
+    { counts[i]=buckets[i].sum();
+    }
+    return counts;
+  }
+  
+  public long getCount()
+  {
+    long count=0;
+    for (LongAdder bucket:buckets)
+    { count+=bucket.sum();
+    }
+    return count;
+  }
+  
+  public long getTotalNanos()
+  { return totalNanos.sum();
+  }
+  
+  public double getMeanMicros()
+  { 
+    long count=getCount();
+    return count==0?0:(getTotalNanos()/1000.0)/count;
+  }
+  
+  /**
+   * The upper bound of each bucket, for display
+   */
+  public static String[] getBucketLabels()
+  {
+    String[] labels=new String[BUCKETS];
+    labels[0]="<1us";
+    for (int i=1;i<BUCKETS-1;i++)
+    { labels[i]="<"+(1L<<i)+"us";
+    }
+    labels[BUCKETS-1]=">="+(1L<<(BUCKETS-2))+"us";
+    return labels;
+  }
+  
+  /**
+   * The non-empty buckets, formatted as "label=count" pairs
+   */
+  @Override
+  public String toString()
+  {
+    StringBuilder buf=new StringBuilder();
+    String[] labels=getBucketLabels();
+    long[] counts=getCounts();
+    for (int i=0;i<BUCKETS;i++)
+    {
+      if (counts[i]>0)
+      { 
+        if (buf.length()>0)
+        { buf.append(" ");
+        }
+        buf.append(labels[i]).append("=").append(counts[i]);
+      }
+    }
+    return buf.toString();
+  }
+}
@@ -14,37 +14,42 @@
 //
 package spiralcraft.launcher;
 
-import spiralcraft.log.ClassLog;
 import spiralcraft.vfs.Container;
-import spiralcraft.vfs.Resolver;
 import spiralcraft.vfs.UnresolvableURIException;
 
 import spiralcraft.vfs.spi.AbstractResource;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+/**
+ * <p>A read-only view of a path in the merged LibraryCatalog, accessed via
+ *   the "sclib:" URI scheme.
+ * </p>
+ * 
+ * <p>The catalog entry, directory listing, size and modification time are
+ *   looked up once and cached until the catalog generation changes, so
+ *   repeated queries on an interned instance do not re-scan the catalog.
+ * </p>
+ */
 public class VfsResource
   extends AbstractResource
   implements Container
 {
-  private static final ClassLog log
-    =ClassLog.getInstance(VfsResource.class);
-  
   private final LibraryCatalog catalog;
-  private Resource resource;
   private final String _path;
-  private List<String> _contents;
+  private volatile Metadata metadata;
 
-  private static final URI stripTrailingSlash(URI uri)
+  /**
+   * Remove the trailing slash from a container URI, except from the root
+   *   "sclib:/", which has no name
+   */
+  static final URI stripTrailingSlash(URI uri)
   { 
     if (uri.getPath()==null)
     { 
@@ -52,7 +57,7 @@ public class VfsResource
         ("URI "+uri+" has a null path component");
     }
     
-    if (uri.getPath().endsWith("/"))
+    if (uri.getPath().endsWith("/") && uri.getPath().length()>1)
     { 
       try
       {
@@ -80,19 +85,78 @@ public class VfsResource
     this.catalog=catalog;
   }
 
+  /**
+   * The cached catalog state for this path, refreshed if the catalog has
+   *   been rediscovered since it was computed.
+   */
+  private Metadata getMetadata()
+  {
+    Metadata metadata=this.metadata;
+    int generation=catalog.getGeneration();
+    if (metadata==null || metadata.generation!=generation)
+    { 
+      metadata=new Metadata(generation,catalog.findResource(_path));
+      this.metadata=metadata;
+    }
+    return metadata;
+  }
+  
   @Override
   public InputStream getInputStream()
     throws IOException
   { 
-    resource
-      =catalog.findResource(_path);
+    return getInputStream(0,-1);
+  }
+  
+  /**
+   * <p>Stream a byte range of the resource. Ranges of resources stored
+   *   uncompressed are read without decompressing preceding data.
+   * </p>
+   * 
+   * @param offset The position of the first byte to read
+   * @param length The maximum number of bytes to read, or -1 to read to the
+   *   end of the resource
+   */
+  public InputStream getInputStream(long offset,long length)
+    throws IOException
+  { 
+    Resource resource=getMetadata().resource;
     if (resource!=null)
-    { return new ByteArrayInputStream(resource.getData());
+    { return resource.getInputStream(offset,length);
     }
     else
     { throw new IOException("Resource '"+_path+"' not found");
     }
   }
+  
+  /**
+   * The uncompressed size of the resource, 0 if it does not exist, or -1
+   *   if the size is not known until the data is read
+   */
+  public long getSize()
+  { 
+    Resource resource=getMetadata().resource;
+    return resource!=null?resource.getSize():0;
+  }
+
+  /**
+   * The modification time of the resource, or 0 if it does not exist
+   */
+  public long getLastModified()
+  { 
+    Resource resource=getMetadata().resource;
+    return resource!=null?resource.getLastModified():0;
+  }
+  
+  /**
+   * The CRC-32 of the resource data, suitable for use as an entity tag, or
+   *   -1 if unknown or the resource does not exist.
+   */
+  public long getCrc()
+  {
+    Resource resource=getMetadata().resource;
+    return resource!=null?resource.getCrc():-1;
+  }
 
   @Override
   public boolean supportsRead()
@@ -110,77 +174,15 @@ public class VfsResource
   { return false;
   }
   
+  /**
+   * <p>A VfsResource is a Container if any module in the catalog contains
+   *   resources beneath its path. Child names come from the catalog's
+   *   merged directory tree.
+   * </p>
+   */
   @Override
   public Container asContainer()
-  { 
-    boolean debug=false;
-    try
-    {
-      if (_contents==null)
-      { 
-        if (debug)
-        { log.fine("Checking "+_path+" in "+catalog);
-        }
-        Iterator<Resource> resources=catalog.findResources(_path);
-        
-        List<URI> parts=new LinkedList<URI>();
-        List<String> contents=new LinkedList<String>();
-        while (resources.hasNext())
-        { 
-          Resource resource=resources.next();
-          try
-          { 
-            URI uri=resource.getResource().toURI();
-            parts.add(uri);
-          }
-          catch (URISyntaxException x)
-          { x.printStackTrace();
-          }
-          
-          if (debug)
-          { log.fine("Got "+parts.get(parts.size()-1).toString());
-          }
-        }
-        
-        
-        if (parts.size()>0)
-        { 
-          for (URI uri: parts)
-          { 
-            VfsResource partResource
-              =(VfsResource) Resolver.getInstance().resolve(uri);
-            if (debug)
-            { log.fine("Checking part "+partResource);
-            }
-              
-            Container partContainer=partResource.asContainer();
-            if (partContainer!=null)
-            {
-              if (debug)
-              { log.fine("Listing container part "+partContainer);
-              }
-                
-              for (spiralcraft.vfs.Resource resource: partContainer.listChildren())
-              { 
-                 
-                if (debug)
-                { log.fine("Adding child  "+resource);
-                }
-                contents.add(resource.getURI().getPath());
-              }
-            }
-          }
-          if (contents.size()>0)
-          { this._contents=contents;
-          }
-        }
-      }
-    }
-    catch (IOException x)
-    { x.printStackTrace();
-    }
-    
-    return _contents!=null?this:null;
+  { return getMetadata().getContents()!=null?this:null;
   }
 
   
@@ -194,7 +196,7 @@ public class VfsResource
   @Override
   public boolean exists()
     throws IOException
-  { return catalog.findResource(_path)!=null;
+  { return getMetadata().resource!=null;
   }
   
   @Override
@@ -207,10 +209,20 @@ public class VfsResource
   @Override
   public VfsResource getChild(String name)
   { 
-    return new VfsResource
-      (URI.create(getURI().getScheme()+":/"+_path+"/"+name)
-      ,catalog
-      );
+    try
+    {
+      return catalog.getResourceFactory().resolve
+        (new URI
+          (getURI().getScheme()
+          ,null
+          ,"/"+(_path.isEmpty()?name:_path+"/"+name)
+          ,null
+          )
+        );
+    }
+    catch (URISyntaxException x)
+    { throw new IllegalArgumentException("Invalid child name "+name,x);
+    }
   }
   
   
@@ -226,9 +238,13 @@ public class VfsResource
   public VfsResource[] listChildren()
     throws IOException
   { 
-    VfsResource[] children=new VfsResource[_contents.size()];
+    List<String> contents=getMetadata().getContents();
+    if (contents==null)
+    { return new VfsResource[0];
+    }
+    VfsResource[] children=new VfsResource[contents.size()];
     int i=0;
-    for (String childName:_contents)
+    for (String childName:contents)
     { children[i++]=getChild(childName);
     }
     return children;
@@ -245,4 +261,28 @@ public class VfsResource
     throws IOException
   { return null;
   }
+  
+  private class Metadata
+  {
+    final int generation;
+    final Resource resource;
+    private volatile List<String> contents;
+    private volatile boolean listed;
+    
+    Metadata(int generation,Resource resource)
+    { 
+      this.generation=generation;
+      this.resource=resource;
+    }
+    
+    List<String> getContents()
+    {
+      if (!listed)
+      { 
+        contents=catalog.listDirectory(_path);
+        listed=true;
+      }
+      return contents;
+    }
+  }
 }
@@ -15,16 +15,39 @@
 package spiralcraft.launcher;
 
 import spiralcraft.vfs.ResourceFactory;
-import spiralcraft.vfs.UnresolvableURIException;
 
+import java.lang.ref.WeakReference;
 import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * <p>Resolves "sclib:" URIs to VfsResources backed by a LibraryCatalog.
+ * </p>
+ * 
+ * <p>Resolved resources are interned in a bounded, weakly referenced LRU
+ *   cache so that code which repeatedly resolves the same URI shares one
+ *   instance and its cached catalog metadata.
+ * </p>
+ */
 public class VfsResourceFactory
   implements ResourceFactory
 {
-
+  private static final int MAX_CACHED_RESOURCES=1024;
   
   private final LibraryCatalog catalog;
+  
+  private final LinkedHashMap<URI,WeakReference<VfsResource>> cache
+    =new LinkedHashMap<URI,WeakReference<VfsResource>>(64,0.75f,true)
+    {
+      private static final long serialVersionUID=1L;
+
+      @Override
+      protected boolean removeEldestEntry
+        (Map.Entry<URI,WeakReference<VfsResource>> eldest)
+      { return size()>MAX_CACHED_RESOURCES;
+      }
+    };
 
   public VfsResourceFactory(LibraryCatalog catalog)
   { this.catalog=catalog;
@@ -32,8 +55,19 @@ public class VfsResourceFactory
   
   @Override
   public VfsResource resolve(URI uri)
-    throws UnresolvableURIException
-  { return new VfsResource(uri,catalog);
+  { 
+    URI key=VfsResource.stripTrailingSlash(uri);
+    synchronized (cache)
+    {
+      WeakReference<VfsResource> ref=cache.get(key);
+      VfsResource resource=ref!=null?ref.get():null;
+      if (resource==null)
+      { 
+        resource=new VfsResource(key,catalog);
+        cache.put(key,new WeakReference<VfsResource>(resource));
+      }
+      return resource;
+    }
   }
   
   @Override
@@ -0,0 +1,322 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.builtins;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import spiralcraft.common.DisposableContext;
+import spiralcraft.exec.ExecutionContext;
+import spiralcraft.launcher.ApplicationManager;
+import spiralcraft.launcher.BuiltInReportEnvironment;
+import spiralcraft.launcher.LauncherThreadGroup;
+import spiralcraft.util.string.StringUtil;
+import spiralcraft.vfs.context.ContextResourceMap;
+
+/**
+ * <p>Runs a script of environment invocations in this JVM, so that the
+ *   catalog, resolved environments and JIT state are shared between
+ *   commands.
+ * </p>
+ * 
+ * <p>Each non-blank line of the script that does not start with '#' is
+ *   tokenized like a command line and passed to the ApplicationManager,
+ *   exactly as if it followed "spiralcraft" on the command line. A
+ *   summary of exit status and elapsed time for each command is printed
+ *   when the script completes.
+ * </p>
+ * 
+ * <pre>
+ *   batch [-threads n] [-keepGoing false] [script-file | -]
+ * </pre>
+ * 
+ * <p>The script is read from the standard input if no file or "-" is
+ *   specified. With "-threads" greater than 1, up to n commands run
+ *   concurrently.
+ * </p>
+ * 
+ * @author mike
+ *
+ */
+public class Batch
+  extends BuiltInReportEnvironment
+{
+
+  private int threads=1;
+  private boolean keepGoing=true;
+  
+  /**
+   * The maximum number of commands to run concurrently. Defaults to 1,
+   *   which runs commands in script order on the launch thread.
+   */
+  public void setThreads(int threads)
+  { this.threads=threads;
+  }
+  
+  /**
+   * Whether to continue running subsequent commands after a command fails.
+   *   Defaults to true. Only applies when running sequentially.
+   */
+  public void setKeepGoing(boolean keepGoing)
+  { this.keepGoing=keepGoing;
+  }
+  
+  @Override
+  protected void report(PrintStream out,String[] args)
+  {
+    String scriptName=null;
+    for (int i=0;i<args.length;i++)
+    {
+      if (args[i].equals("-threads") && i+1<args.length)
+      { 
+        try
+        { threads=Integer.parseInt(args[++i]);
+        }
+        catch (NumberFormatException x)
+        { 
+          errStream.println
+            ("Usage: batch [-threads n] [-keepGoing true|false] [script-file]");
+          return;
+        }
+      }
+      else if (args[i].equals("-keepGoing") && i+1<args.length)
+      { keepGoing=Boolean.parseBoolean(args[++i]);
+      }
+      else
+      { scriptName=args[i];
+      }
+    }
+    
+    List<Command> commands;
+    try
+    { commands=readScript(scriptName);
+    }
+    catch (IOException x)
+    { 
+      errStream.println("Error reading batch script "
+        +(scriptName!=null?scriptName:"(stdin)")+": "+x
+        );
+      return;
+    }
+    
+    long start=System.nanoTime();
+    if (threads>1)
+    { runParallel(commands);
+    }
+    else
+    { runSequential(commands);
+    }
+    long elapsed=System.nanoTime()-start;
+    summarize(out,commands,elapsed);
+  }
+  
+  private List<Command> readScript(String scriptName)
+    throws IOException
+  {
+    InputStream in
+      =scriptName==null || scriptName.equals("-")
+      ?inStream
+      :new FileInputStream(scriptName)
+      ;
+      
+    List<Command> commands=new ArrayList<Command>();
+    BufferedReader reader=new BufferedReader(new InputStreamReader(in));
+    try
+    {
+      String line;
+      int lineNumber=0;
+      while ((line=reader.readLine())!=null)
+      { 
+        lineNumber++;
+        line=line.trim();
+        if (line.length()==0 || line.startsWith("#"))
+        { continue;
+        }
+        commands.add
+          (new Command(lineNumber,line,StringUtil.tokenizeCommandLine(line)));
+      }
+    }
+    finally
+    { 
+      if (in!=inStream)
+      { in.close();
+      }
+    }
+    return commands;
+  }
+  
+  private void runSequential(List<Command> commands)
+  {
+    for (Command command:commands)
+    { 
+      command.run();
+      if (command.status!=0 && !keepGoing)
+      { break;
+      }
+    }
+  }
+  
+  private void runParallel(List<Command> commands)
+  {
+    final ExecutionContext context=ExecutionContext.getInstance();
+    ThreadGroup group=Thread.currentThread().getThreadGroup();
+    ExecutorService executor
+      =group instanceof LauncherThreadGroup
+      ?Executors.newFixedThreadPool(threads,(LauncherThreadGroup) group)
+      :Executors.newFixedThreadPool(threads)
+      ;
+    try
+    {
+      List<Future<?>> futures=new ArrayList<Future<?>>();
+      for (final Command command:commands)
+      { 
+        futures.add
+          (executor.submit
+            (new Runnable()
+            {
+              @Override
+              public void run()
+              { runInContext(command,context);
+              }
+            }
+            )
+          );
+      }
+      for (Future<?> future:futures)
+      { 
+        try
+        { future.get();
+        }
+        catch (ExecutionException x)
+        { x.getCause().printStackTrace(errStream);
+        }
+        catch (InterruptedException x)
+        { 
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+    finally
+    { executor.shutdown();
+    }
+  }
+  
+  /**
+   * Reproduce the context that the launcher sets up for the main command
+   *   on a worker thread.
+   */
+  private void runInContext(Command command,ExecutionContext context)
+  {
+    ContextResourceMap contextResourceMap=new ContextResourceMap();
+    contextResourceMap.put
+      ("codebase",_applicationManager.getCodebase().toURI());
+    contextResourceMap.push();
+    ExecutionContext.pushInstance(context);
+    DisposableContext.push();
+    try
+    { command.run();
+    }
+    finally
+    { 
+      DisposableContext.pop();
+      ExecutionContext.popInstance();
+      contextResourceMap.pop();
+    }
+  }
+  
+  private void summarize(PrintStream out,List<Command> commands,long elapsed)
+  {
+    int run=0;
+    int failed=0;
+    for (Command command:commands)
+    {
+      if (command.status>=0)
+      { run++;
+      }
+      if (command.status>0)
+      { failed++;
+      }
+    }
+    
+    out.println(" ");
+    out.println("Batch summary: "+commands.size()+" commands, "
+      +run+" run, "+failed+" failed, "
+      +(elapsed/1000000)+" ms total"
+      );
+    out.println(" ");
+    out.println("    line  status        ms  command");
+    for (Command command:commands)
+    {
+      out.println
+        (String.format
+          ("    %4d  %6s  %8s  %s"
+          ,command.lineNumber
+          ,command.status>=0?Integer.toString(command.status):"-"
+          ,command.status>=0?Long.toString(command.elapsed/1000000):"-"
+          ,command.line
+          )
+        );
+    }
+  }
+  
+  class Command
+  {
+    final int lineNumber;
+    final String line;
+    final String[] args;
+    
+    // -1 = not run, 0 = success, 1 = failed
+    volatile int status=-1;
+    volatile long elapsed;
+    
+    Command(int lineNumber,String line,String[] args)
+    { 
+      this.lineNumber=lineNumber;
+      this.line=line;
+      this.args=args;
+    }
+    
+    void run()
+    {
+      ApplicationManager manager=_applicationManager;
+      long start=System.nanoTime();
+      try
+      { 
+        manager.exec(args);
+        status=0;
+      }
+      catch (Exception x)
+      { 
+        errStream.println("Batch line "+lineNumber+" failed: "+line);
+        x.printStackTrace(errStream);
+        status=1;
+      }
+      finally
+      { elapsed=System.nanoTime()-start;
+      }
+    }
+  }
+}
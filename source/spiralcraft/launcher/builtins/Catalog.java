@@ -0,0 +1,136 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.builtins;
+
+import java.io.File;
+import java.io.PrintStream;
+
+import spiralcraft.launcher.BuiltInReportEnvironment;
+import spiralcraft.launcher.CatalogIndex;
+import spiralcraft.launcher.LibraryCatalog;
+
+/**
+ * <p>Writes the catalog index for a codebase, so subsequent launches 
+ *   restore the library catalog from the index instead of scanning the
+ *   jars in the codebase lib directory
+ * </p>
+ * 
+ * <pre>
+ *   catalog [-check] [directory]
+ * </pre>
+ * 
+ * <p>The directory defaults to the current codebase. The index must be
+ *   rewritten whenever a library is added, removed or replaced, 
+ *   otherwise launches will ignore it and discover the libraries. With
+ *   -check, reports whether the existing index is current.
+ * </p>
+ * 
+ * @author mike
+ *
+ */
+public class Catalog
+  extends BuiltInReportEnvironment
+{
+
+  @Override
+  protected void report(PrintStream out,String[] args)
+  {
+    boolean check=false;
+    String codebase=null;
+    for (int i=0;i<args.length;i++)
+    {
+      if (args[i].equals("-check"))
+      { check=true;
+      }
+      else if (!args[i].startsWith("-") && codebase==null)
+      { codebase=args[i];
+      }
+      else
+      { 
+        errStream.println("Usage: catalog [-check] [directory]");
+        return;
+      }
+    }
+    
+    File libDir
+      =codebase!=null
+      ?new File(codebase,"lib")
+      :new File(_applicationManager.getLibraryCatalog().getPath())
+      ;
+    File indexFile=new File(libDir,CatalogIndex.FILE_NAME);
+    
+    try
+    {
+      if (check)
+      { 
+        if (!indexFile.exists())
+        { 
+          out.println(indexFile+" does not exist");
+          return;
+        }
+        String staleReason=CatalogIndex.read(indexFile).checkCurrent(libDir);
+        out.println
+          (indexFile+(staleReason==null?" is current":": "+staleReason));
+        return;
+      }
+      
+      if (!libDir.isDirectory())
+      { 
+        errStream.println(libDir+" is not a directory");
+        return;
+      }
+      
+      long start=System.nanoTime();
+      LibraryCatalog catalog=new LibraryCatalog(libDir,false,false);
+      CatalogIndex index;
+      try
+      { index=CatalogIndex.build(catalog);
+      }
+      finally
+      { catalog.close();
+      }
+      index.write(indexFile);
+      long nanos=System.nanoTime()-start;
+      
+      int resources=0;
+      int packages=0;
+      int services=0;
+      int environments=0;
+      for (CatalogIndex.ModuleEntry entry:index.getModules())
+      { 
+        resources+=entry.getResourceCount();
+        packages+=entry.getPackages().size();
+        services+=entry.getServices().size();
+        environments+=entry.getEnvironments().size();
+      }
+      out.println
+        ("Wrote "+indexFile+" ("+(indexFile.length()/1024)+"K) in "
+        +(nanos/1000000)+"ms"
+        );
+      out.println
+        ("  "+index.getModules().size()+" libraries, "
+        +resources+" resources, "
+        +packages+" packages, "
+        +services+" service registrations, "
+        +environments+" environments"
+        );
+    }
+    catch (Exception x)
+    { 
+      errStream.println("Error cataloging "+libDir+": "+x);
+      x.printStackTrace(errStream);
+    }
+  }
+}
@@ -15,7 +15,20 @@
 package spiralcraft.launcher.builtins;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
 
 import spiralcraft.launcher.BuiltInReportEnvironment;
 import spiralcraft.launcher.Module;
@@ -23,7 +36,30 @@ import spiralcraft.launcher.LibraryCatalog;
 import spiralcraft.launcher.Resource;
 
 /**
- * Extract the Changelog from a codebase module
+ * <p>Extract the Changelog from a codebase module
+ * </p>
+ * 
+ * <pre>
+ *   changelog module [-since revision] [-last n] [-path text]
+ * </pre>
+ * 
+ * <p>Without filters, the change log is copied to the output as is. With
+ *   filters, it is parsed as a stream and only the matching changes are
+ *   output, within their releases, as a change list document. Parsing
+ *   stops as soon as no further changes can match, and memory use does 
+ *   not depend on the size of the change log.
+ * </p>
+ * 
+ * <ul>
+ *   <li>-since revision: Only changes in releases newer than the named
+ *     release revision
+ *   </li>
+ *   <li>-last n: Only the n most recent changes, where n is at least 1
+ *   </li>
+ *   <li>-path text: Only changes with a path or resource URI that
+ *     contains the text
+ *   </li>
+ * </ul>
  * 
  * @author mike
  *
@@ -31,12 +67,60 @@ import spiralcraft.launcher.Resource;
 public class Changelog
   extends BuiltInReportEnvironment
 {
+  private static final String CHANGE_LOG_RESOURCE
+    ="META-INF/spiralcraft-scm/CHANGES.xml";
+  
+  private String since;
+  private int last=-1;
+  private String path;
 
+  private void usage()
+  { 
+    errStream.println
+      ("Usage: changelog module [-since revision] [-last n] [-path text]");
+  }
+  
   @Override
   protected void report(PrintStream out,String[] args)
   { 
     LibraryCatalog catalog=_applicationManager.getLibraryCatalog();
-    if (args.length<1)
+    String moduleName=null;
+    try
+    {
+      for (int i=0;i<args.length;i++)
+      {
+        if (args[i].equals("-since") && i+1<args.length)
+        { since=args[++i];
+        }
+        else if (args[i].equals("-last") && i+1<args.length)
+        { 
+          last=Integer.parseInt(args[++i]);
+          if (last<1)
+          { 
+            usage();
+            return;
+          }
+        }
+        else if (args[i].equals("-path") && i+1<args.length)
+        { path=args[++i];
+        }
+        else if (!args[i].startsWith("-") && moduleName==null)
+        { moduleName=args[i];
+        }
+        else
+        { 
+          usage();
+          return;
+        }
+      }
+    }
+    catch (NumberFormatException x)
+    { 
+      usage();
+      return;
+    }
+    
+    if (moduleName==null)
     { 
       out.println("A module name argument is required:");
       for (Module module: catalog.listModules())
@@ -44,10 +128,10 @@ public class Changelog
       }
       return;
     }
-    Module module=catalog.findModule(args[0]);
+    Module module=catalog.findModule(moduleName);
     if (module==null)
     { 
-      out.println("Could not find module "+args[0]+":");
+      out.println("Could not find module "+moduleName+":");
       for (Module candidate: catalog.listModules())
       { out.println("  "+candidate.getName());
       }
@@ -56,32 +140,265 @@ public class Changelog
     else
     { 
       Resource changeLog
-        =module.getResource("META-INF/spiralcraft-scm/CHANGES.xml");
+        =module.getResource(CHANGE_LOG_RESOURCE);
       if (changeLog!=null)
       { 
-        try
+        try (InputStream in=changeLog.getInputStream())
         { 
-          byte[] data=changeLog.getData();
-          if (data!=null && data.length>0)
+          if (since==null && last<0 && path==null)
           { 
-            out.print(new String(data));
+            if (in.transferTo(out)==0)
+            { out.print("Module "+moduleName+" changeLog does not exist");
+            }
           }
           else
-          { out.print("Module "+args[0]+" changeLog does not exist");
+          { filter(in,out);
           }
+          out.flush();
         }
-        catch (IOException x)
-        { out.print("Error reading changelog for module "+args[0]+": "+x.toString());
+        catch (IOException | XMLStreamException x)
+        { out.print("Error reading changelog for module "+moduleName+": "+x.toString());
         }
       }
       else
       { 
-        out.print("Module "+args[0]+" does not contain resource "+changeLog);
+        out.print
+          ("Module "+moduleName+" does not contain resource "
+          +CHANGE_LOG_RESOURCE
+          );
         
       }
     }
   }
   
-
+  /**
+   * <p>Copy the changes that match the filters.
+   * </p>
+   * 
+   * <p>A change list contains releases, each a Change with a revision and 
+   *   a "detail" list of the individual Changes made in that release. 
+   *   Releases are newest first. The header of the current release and 
+   *   the current detail Change are buffered until it is known whether 
+   *   they will be output.
+   * </p>
+   */
+  private void filter(InputStream in,PrintStream out)
+    throws XMLStreamException
+  {
+    XMLInputFactory inputFactory=XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_COALESCING,Boolean.TRUE);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD,Boolean.FALSE);
+    XMLEventReader reader=inputFactory.createXMLEventReader(in);
+    XMLEventWriter writer
+      =XMLOutputFactory.newInstance().createXMLEventWriter(out,"UTF-8");
+    
+    List<XMLEvent> header=new ArrayList<XMLEvent>();
+    List<XMLEvent> entry=new ArrayList<XMLEvent>();
+    StartElement root=null;
+    StartElement release=null;
+    StartElement detail=null;
+    boolean releaseWritten=false;
+    boolean hasDetail=false;
+    boolean inDetail=false;
+    boolean entryMatches=false;
+    String element=null;
+    StringBuilder text=new StringBuilder();
+    int count=0;
+    int depth=0;
+    boolean done=false;
+    
+    try
+    {
+      while (!done && reader.hasNext())
+      {
+        XMLEvent event=reader.nextEvent();
+        if (event.isStartElement())
+        {
+          StartElement start=event.asStartElement();
+          depth++;
+          element=start.getName().getLocalPart();
+          text.setLength(0);
+          if (depth==1)
+          { 
+            root=start;
+            writer.add(start);
+          }
+          else if (depth==2)
+          { 
+            release=start;
+            releaseWritten=false;
+            hasDetail=false;
+            header.add(start);
+          }
+          else if (inDetail)
+          { 
+            if (depth==4)
+            { entryMatches=path==null;
+            }
+            entry.add(start);
+          }
+          else
+          { 
+            if (depth==3 && element.equals("detail"))
+            { 
+              detail=start;
+              inDetail=true;
+              hasDetail=true;
+            }
+            add(start,header,releaseWritten,writer);
+          }
+        }
+        else if (event.isCharacters())
+        {
+          if (depth>=2)
+          { text.append(event.asCharacters().getData());
+          }
+          
+          if (inDetail)
+          { entry.add(event);
+          }
+          else if (depth==1)
+          { 
+            // Whitespace before a release
+            header.clear();
+            header.add(event);
+          }
+          else
+          { add(event,header,releaseWritten,writer);
+          }
+        }
+        else if (event.isEndElement())
+        {
+          EndElement end=event.asEndElement();
+          String name=end.getName().getLocalPart();
+          if (depth==1)
+          { writer.add(end);
+          }
+          else if (inDetail && depth>=4)
+          {
+            entry.add(end);
+            if (path!=null 
+                && (name.equals("path") || name.equals("URI"))
+                && text.indexOf(path)>=0
+                )
+            { entryMatches=true;
+            }
+            
+            if (depth==4)
+            {
+              if (entryMatches)
+              { 
+                if (!releaseWritten)
+                {
+                  writeAll(header,writer);
+                  releaseWritten=true;
+                }
+                writeAll(entry,writer);
+                count++;
+                done=last>=0 && count>=last;
+              }
+              entry.clear();
+            }
+          }
+          else if (depth==3 && inDetail)
+          {
+            inDetail=false;
+            if (releaseWritten)
+            { 
+              writeAll(entry,writer);
+              writer.add(end);
+            }
+            entry.clear();
+          }
+          else if (depth==3 
+                  && name.equals("revision") 
+                  && since!=null 
+                  && text.toString().trim().equals(since)
+                  )
+          { 
+            // Everything from here on is the named release or older
+            done=true;
+            header.clear();
+          }
+          else if (depth==2)
+          {
+            if (!releaseWritten && !hasDetail && path==null)
+            { 
+              // A release without individual changes counts as a change
+              writeAll(header,writer);
+              writer.add(end);
+              count++;
+              done=last>=0 && count>=last;
+            }
+            else if (releaseWritten)
+            { writer.add(end);
+            }
+            header.clear();
+            release=null;
+            releaseWritten=false;
+          }
+          else
+          { add(end,header,releaseWritten,writer);
+          }
+          depth--;
+          text.setLength(0);
+        }
+      }
+      
+      if (done)
+      {
+        // Close the elements that were written
+        XMLEventFactory eventFactory=XMLEventFactory.newInstance();
+        if (releaseWritten)
+        { 
+          if (inDetail)
+          { 
+            writer.add(eventFactory.createCharacters("\n    "));
+            writer.add(endElement(eventFactory,detail));
+          }
+          writer.add(eventFactory.createCharacters("\n  "));
+          writer.add(endElement(eventFactory,release));
+        }
+        if (root!=null)
+        { 
+          writer.add(eventFactory.createCharacters("\n"));
+          writer.add(endElement(eventFactory,root));
+        }
+      }
+      writer.flush();
+      out.println();
+    }
+    finally
+    { 
+      reader.close();
+      writer.close();
+    }
+  }
+  
+  private static void add
+    (XMLEvent event,List<XMLEvent> buffer,boolean written,XMLEventWriter writer)
+    throws XMLStreamException
+  {
+    if (written)
+    { writer.add(event);
+    }
+    else
+    { buffer.add(event);
+    }
+  }
+  
+  private static EndElement endElement
+    (XMLEventFactory eventFactory,StartElement start)
+  { return eventFactory.createEndElement(start.getName(),start.getNamespaces());
+  }
+  
+  private static void writeAll(List<XMLEvent> events,XMLEventWriter writer)
+    throws XMLStreamException
+  {
+    for (XMLEvent event:events)
+    { writer.add(event);
+    }
+    events.clear();
+  }
   
 }
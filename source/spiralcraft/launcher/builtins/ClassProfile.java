@@ -0,0 +1,114 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.builtins;
+
+import java.io.PrintStream;
+
+import spiralcraft.launcher.BuiltInReportEnvironment;
+import spiralcraft.launcher.ClassLoadProfile;
+import spiralcraft.util.ArrayUtil;
+
+/**
+ * <p>Reports the class loading behaviour of an environment, per codebase
+ *   module- classes defined, bytes read, time spent reading and defining
+ *   classes, resource lookups, misses and the number of distinct classes
+ *   supplied by a parent loader- followed by the slowest modules and
+ *   classes.
+ * </p>
+ * 
+ * <pre>
+ *   classprofile [-top n] [environment [args]]
+ * </pre>
+ * 
+ * <p>If an environment is specified, it is run in this JVM with profiling
+ *   active and the profile is reported when it completes. Otherwise, the
+ *   profile collected so far in this process is reported, which requires
+ *   the launcher to have been started with --class-profile.
+ * </p>
+ * 
+ * @author mike
+ *
+ */
+public class ClassProfile
+  extends BuiltInReportEnvironment
+{
+  private int top=20;
+  
+  /**
+   * The number of modules and classes to list. Defaults to 20.
+   */
+  public void setTop(int top)
+  { this.top=top;
+  }
+  
+  @Override
+  protected void report(PrintStream out,String[] args)
+  {
+    int pos=0;
+    while (pos<args.length && args[pos].startsWith("-"))
+    {
+      if (args[pos].equals("-top") && pos+1<args.length)
+      { 
+        try
+        { top=Integer.parseInt(args[++pos]);
+        }
+        catch (NumberFormatException x)
+        { 
+          errStream.println("Invalid -top "+args[pos]);
+          return;
+        }
+      }
+      else
+      { 
+        errStream.println("Unknown option "+args[pos]);
+        return;
+      }
+      pos++;
+    }
+    
+    if (pos==args.length)
+    {
+      ClassLoadProfile profile=ClassLoadProfile.getActive();
+      if (profile==null)
+      { 
+        errStream.println
+          ("No class loading profile is active. Specify an environment to"
+          +" profile, or start the launcher with --class-profile"
+          );
+        return;
+      }
+      profile.report(out,top);
+      return;
+    }
+    
+    String[] targetArgs=ArrayUtil.truncateBefore(args,pos);
+    ClassLoadProfile profile=ClassLoadProfile.start();
+    try
+    { _applicationManager.exec(targetArgs);
+    }
+    catch (Exception x)
+    { 
+      errStream.println
+        ("Error running "+ArrayUtil.format(targetArgs," ","")+": "+x);
+      x.printStackTrace(errStream);
+    }
+    finally
+    { 
+      profile.stop();
+      out.println();
+      profile.report(out,top);
+    }
+  }
+}
@@ -16,7 +16,20 @@ package spiralcraft.launcher.builtins;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
@@ -29,7 +42,24 @@ import javax.sound.midi.MidiSystem;
 import spiralcraft.launcher.BuiltInReportEnvironment;
 
 /**
- * Info about running JVM
+ * <p>Info about running JVM
+ * </p>
+ * 
+ * <pre>
+ *   jvminfo [section ...] [-sample seconds [-count n]]
+ * </pre>
+ * 
+ * <p>The sections are runtime, properties, env, gc, jit, classloading,
+ *   buffers, threads, memory and midi, or "all". The default is runtime,
+ *   properties and env. The midi section initializes the sound subsystem,
+ *   which can be slow, so it is only output when requested.
+ * </p>
+ * 
+ * <p>With -sample, a line of live metrics is printed every few seconds,
+ *   with the changes in garbage collection, compilation and class 
+ *   loading since the previous line, until the count is reached (or
+ *   indefinitely).
+ * </p>
  * 
  * @author mike
  *
@@ -37,16 +67,115 @@ import spiralcraft.launcher.BuiltInReportEnvironment;
 public class JVMInfo
   extends BuiltInReportEnvironment
 {
-
+  private static final List<String> SECTIONS
+    =Arrays.asList
+      ("runtime","properties","env","gc","jit","classloading"
+      ,"buffers","threads","memory","midi"
+      );
+  private static final List<String> DEFAULT_SECTIONS
+    =Arrays.asList("runtime","properties","env");
+  
+  private void usage()
+  {
+    errStream.println
+      ("Usage: jvminfo [section ...] [-sample seconds [-count n]]");
+    errStream.println("  sections: all "+String.join(" ",SECTIONS));
+  }
   
   @Override
   protected void report(PrintStream out,String[] args)
   {
-    dumpRuntime(out);
-    out.println(" ");
-    dumpProperties(out);
-    out.println(" ");
-    dumpEnvironment(out);
+    List<String> sections=new ArrayList<String>();
+    int sampleSeconds=0;
+    int count=0;
+    try
+    {
+      for (int i=0;i<args.length;i++)
+      {
+        if (args[i].equals("-sample") && i+1<args.length)
+        { sampleSeconds=Integer.parseInt(args[++i]);
+        }
+        else if (args[i].equals("-count") && i+1<args.length)
+        { count=Integer.parseInt(args[++i]);
+        }
+        else if (args[i].equals("all"))
+        { sections.addAll(SECTIONS);
+        }
+        else if (SECTIONS.contains(args[i]))
+        { sections.add(args[i]);
+        }
+        else
+        { 
+          usage();
+          return;
+        }
+      }
+    }
+    catch (NumberFormatException x)
+    { 
+      usage();
+      return;
+    }
+    if (sections.isEmpty() && sampleSeconds==0)
+    { sections.addAll(DEFAULT_SECTIONS);
+    }
+    
+    boolean first=true;
+    for (String section:sections)
+    {
+      if (!first)
+      { out.println(" ");
+      }
+      first=false;
+      dumpSection(out,section);
+    }
+    
+    if (sampleSeconds>0)
+    { 
+      if (!first)
+      { out.println(" ");
+      }
+      sample(out,sampleSeconds,count);
+    }
+  }
+  
+  private void dumpSection(PrintStream out,String section)
+  {
+    switch (section)
+    {
+      case "runtime":
+        dumpRuntime(out);
+        break;
+      case "properties":
+        dumpProperties(out);
+        break;
+      case "env":
+        dumpEnvironment(out);
+        break;
+      case "gc":
+        dumpGarbageCollection(out);
+        break;
+      case "jit":
+        dumpCompilation(out);
+        break;
+      case "classloading":
+        dumpClassLoading(out);
+        break;
+      case "buffers":
+        dumpBufferPools(out);
+        break;
+      case "threads":
+        dumpThreads(out);
+        break;
+      case "memory":
+        dumpMemory(out);
+        break;
+      case "midi":
+        dumpMidi(out);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown section "+section);
+    }
   }
   
   public void dumpRuntime(PrintStream out)
@@ -138,7 +267,10 @@ public class JVMInfo
     { 
       out.println("    "+entry.getKey()+" = "+entry.getValue());
     }
-    
+  }
+  
+  public void dumpMidi(PrintStream out)
+  {
     out.println("Midi Devices");
     out.println(" ");
     MidiDevice.Info[] info=MidiSystem.getMidiDeviceInfo();
@@ -148,4 +280,218 @@ public class JVMInfo
     
   }
   
+  public void dumpGarbageCollection(PrintStream out)
+  {
+    out.println("Garbage Collection");
+    out.println(" ");
+    for (GarbageCollectorMXBean collector
+          :ManagementFactory.getGarbageCollectorMXBeans()
+        )
+    {
+      out.println("    "+collector.getName()
+        +": count = "+collector.getCollectionCount()
+        +", time = "+collector.getCollectionTime()+"ms"
+        +", pools = "+String.join(",",collector.getMemoryPoolNames())
+        );
+    }
+  }
+  
+  public void dumpCompilation(PrintStream out)
+  {
+    out.println("JIT Compilation");
+    out.println(" ");
+    CompilationMXBean compilation=ManagementFactory.getCompilationMXBean();
+    if (compilation==null)
+    { 
+      out.println("    No JIT compiler");
+      return;
+    }
+    out.println("    Compiler = "+compilation.getName());
+    if (compilation.isCompilationTimeMonitoringSupported())
+    { 
+      out.println("    Total compilation time = "
+        +compilation.getTotalCompilationTime()+"ms"
+        );
+    }
+    out.println("    Input arguments = "
+      +ManagementFactory.getRuntimeMXBean().getInputArguments()
+      );
+  }
+  
+  public void dumpClassLoading(PrintStream out)
+  {
+    ClassLoadingMXBean classLoading=ManagementFactory.getClassLoadingMXBean();
+    out.println("Class Loading");
+    out.println(" ");
+    out.println("    Loaded classes = "+classLoading.getLoadedClassCount());
+    out.println("    Total loaded classes = "
+      +classLoading.getTotalLoadedClassCount()
+      );
+    out.println("    Unloaded classes = "+classLoading.getUnloadedClassCount());
+  }
+  
+  public void dumpBufferPools(PrintStream out)
+  {
+    out.println("Buffer Pools");
+    out.println(" ");
+    for (BufferPoolMXBean pool
+          :ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)
+        )
+    {
+      out.println("    "+pool.getName()
+        +": count = "+pool.getCount()
+        +", used = "+pool.getMemoryUsed()
+        +", capacity = "+pool.getTotalCapacity()
+        );
+    }
+  }
+  
+  public void dumpThreads(PrintStream out)
+  {
+    ThreadMXBean threads=ManagementFactory.getThreadMXBean();
+    out.println("Threads");
+    out.println(" ");
+    out.println("    Live threads = "+threads.getThreadCount());
+    out.println("    Peak threads = "+threads.getPeakThreadCount());
+    out.println("    Daemon threads = "+threads.getDaemonThreadCount());
+    out.println("    Total started threads = "
+      +threads.getTotalStartedThreadCount()
+      );
+    
+    Map<Thread.State,Integer> states
+      =new EnumMap<Thread.State,Integer>(Thread.State.class);
+    for (ThreadInfo info:threads.getThreadInfo(threads.getAllThreadIds()))
+    {
+      if (info!=null)
+      { 
+        Integer count=states.get(info.getThreadState());
+        states.put(info.getThreadState(),count!=null?count+1:1);
+      }
+    }
+    out.println("    States = "+states);
+    
+    long[] deadlocked=threads.findDeadlockedThreads();
+    out.println("    Deadlocked threads = "
+      +(deadlocked!=null?deadlocked.length:0)
+      );
+  }
+  
+  public void dumpMemory(PrintStream out)
+  {
+    MemoryMXBean memory=ManagementFactory.getMemoryMXBean();
+    out.println("Memory");
+    out.println(" ");
+    out.println("    Heap = "+memory.getHeapMemoryUsage());
+    out.println("    Non-heap = "+memory.getNonHeapMemoryUsage());
+    out.println("    Objects pending finalization = "
+      +memory.getObjectPendingFinalizationCount()
+      );
+    out.println(" ");
+    for (MemoryPoolMXBean pool:ManagementFactory.getMemoryPoolMXBeans())
+    {
+      out.println("    "+pool.getName()+" ("+pool.getType()+")");
+      out.println("      usage = "+pool.getUsage());
+      out.println("      peak = "+pool.getPeakUsage());
+    }
+  }
+  
+  /**
+   * Print a line of live metrics every interval, with the changes since 
+   *   the previous line for the cumulative counters
+   * 
+   * @param count The number of lines, or 0 to sample until interrupted
+   */
+  public void sample(PrintStream out,int seconds,int count)
+  {
+    out.println
+      (String.format
+        ("%-8s %9s %9s %7s %8s %8s %9s %8s %9s"
+        ,"time","heap MB","nonheap","gc","gc ms","jit ms","classes","threads"
+        ,"direct MB"
+        )
+      );
+    
+    Snapshot previous=new Snapshot();
+    for (int i=0;count==0 || i<count;i++)
+    {
+      try
+      { Thread.sleep(seconds*1000L);
+      }
+      catch (InterruptedException x)
+      { 
+        Thread.currentThread().interrupt();
+        return;
+      }
+      
+      Snapshot current=new Snapshot();
+      out.println
+        (String.format
+          ("%-8s %9.1f %9.1f %7d %8d %8d %9d %8d %9.1f"
+          ,String.format("%tT",current.time)
+          ,megabytes(current.heapUsed)
+          ,megabytes(current.nonHeapUsed)
+          ,current.gcCount-previous.gcCount
+          ,current.gcMillis-previous.gcMillis
+          ,current.jitMillis-previous.jitMillis
+          ,current.classesLoaded-previous.classesLoaded
+          ,current.threads
+          ,megabytes(current.directUsed)
+          )
+        );
+      out.flush();
+      previous=current;
+    }
+  }
+  
+  private static double megabytes(long bytes)
+  { return bytes/(1024.0*1024.0);
+  }
+  
+  /**
+   * The platform MXBean counters at a point in time
+   */
+  private static class Snapshot
+  {
+    final long time=System.currentTimeMillis();
+    final long heapUsed;
+    final long nonHeapUsed;
+    long gcCount;
+    long gcMillis;
+    final long jitMillis;
+    final long classesLoaded;
+    final int threads;
+    long directUsed;
+    
+    Snapshot()
+    {
+      MemoryMXBean memory=ManagementFactory.getMemoryMXBean();
+      heapUsed=memory.getHeapMemoryUsage().getUsed();
+      nonHeapUsed=memory.getNonHeapMemoryUsage().getUsed();
+      for (GarbageCollectorMXBean collector
+            :ManagementFactory.getGarbageCollectorMXBeans()
+          )
+      { 
+        gcCount+=Math.max(0,collector.getCollectionCount());
+        gcMillis+=Math.max(0,collector.getCollectionTime());
+      }
+      CompilationMXBean compilation=ManagementFactory.getCompilationMXBean();
+      jitMillis
+        =compilation!=null && compilation.isCompilationTimeMonitoringSupported()
+        ?compilation.getTotalCompilationTime()
+        :0
+        ;
+      classesLoaded
+        =ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+      threads=ManagementFactory.getThreadMXBean().getThreadCount();
+      for (BufferPoolMXBean pool
+            :ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)
+          )
+      {
+        if (pool.getName().equals("direct"))
+        { directUsed=pool.getMemoryUsed();
+        }
+      }
+    }
+  }
+  
 }
@@ -14,20 +14,35 @@
 //
 package spiralcraft.launcher.builtins;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import spiralcraft.launcher.BuiltInReportEnvironment;
+import spiralcraft.launcher.LauncherThreadGroup;
 import spiralcraft.launcher.Module;
 import spiralcraft.launcher.LibraryCatalog;
-import spiralcraft.launcher.Resource;
 
 /**
- * Info about module versions in codebase
+ * <p>Info about module versions in codebase
+ * </p>
+ * 
+ * <pre>
+ *   versions [-format text|json|csv] [-threads n]
+ * </pre>
+ * 
+ * <p>Version information is normally extracted when the catalog is 
+ *   built. Modules whose version was not cataloged are read in parallel
+ *   using the specified number of threads, which defaults to the number
+ *   of available processors.
+ * </p>
  * 
  * @author mike
  *
@@ -35,13 +50,144 @@ import spiralcraft.launcher.Resource;
 public class Versions
   extends BuiltInReportEnvironment
 {
+  private String format="text";
+  private int threads=Runtime.getRuntime().availableProcessors();
+  
+  /**
+   * The output format: "text" (the default), "json" or "csv"
+   */
+  public void setFormat(String format)
+  { this.format=format;
+  }
+  
+  /**
+   * The number of threads used to read versions that were not extracted
+   *   when the catalog was built
+   */
+  public void setThreads(int threads)
+  { this.threads=threads;
+  }
 
+  private void usage()
+  { errStream.println("Usage: versions [-format text|json|csv] [-threads n]");
+  }
+  
   @Override
   protected void report(PrintStream out,String[] args)
   {
+    try
+    {
+      for (int i=0;i<args.length;i++)
+      {
+        if (args[i].equals("-format") && i+1<args.length)
+        { format=args[++i];
+        }
+        else if (args[i].equals("-threads") && i+1<args.length)
+        { threads=Integer.parseInt(args[++i]);
+        }
+        else
+        { 
+          usage();
+          return;
+        }
+      }
+    }
+    catch (NumberFormatException x)
+    { 
+      usage();
+      return;
+    }
+    
     LibraryCatalog catalog=_applicationManager.getLibraryCatalog();
     
     List<Module> modules=catalog.listModules();
+    scanVersions(modules);
+    
+    if (format.equals("json"))
+    { reportJson(out,modules);
+    }
+    else if (format.equals("csv"))
+    { reportCsv(out,modules);
+    }
+    else if (format.equals("text"))
+    { reportText(out,modules);
+    }
+    else
+    { errStream.println("Unknown format "+format+": use text, json or csv");
+    }
+  }
+  
+  /**
+   * Read the versions of any modules that were not extracted when the
+   *   catalog was built, in parallel
+   */
+  private void scanVersions(List<Module> modules)
+  {
+    List<Module> pending=new ArrayList<Module>();
+    for (Module module:modules)
+    {
+      if (!module.isVersionCataloged())
+      { pending.add(module);
+      }
+    }
+    if (pending.isEmpty())
+    { return;
+    }
+    
+    ThreadGroup group=Thread.currentThread().getThreadGroup();
+    int poolSize=Math.max(1,Math.min(threads,pending.size()));
+    ExecutorService executor
+      =group instanceof LauncherThreadGroup
+      ?Executors.newFixedThreadPool(poolSize,(LauncherThreadGroup) group)
+      :Executors.newFixedThreadPool(poolSize)
+      ;
+    try
+    {
+      List<Future<?>> futures=new ArrayList<Future<?>>();
+      for (final Module module:pending)
+      { 
+        futures.add
+          (executor.submit
+            (new Runnable()
+            {
+              @Override
+              public void run()
+              { 
+                try
+                { module.readVersionProperties();
+                }
+                catch (IOException x)
+                { 
+                  errStream.println
+                    ("Error reading version of "+module.getName()+": "+x);
+                }
+              }
+            }
+            )
+          );
+      }
+      for (Future<?> future:futures)
+      { 
+        try
+        { future.get();
+        }
+        catch (ExecutionException x)
+        { x.getCause().printStackTrace(errStream);
+        }
+        catch (InterruptedException x)
+        { 
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+    finally
+    { executor.shutdown();
+    }
+  }
+  
+  private void reportText(PrintStream out,List<Module> modules)
+  {
     for (Module module : modules)
     { 
       out.println
@@ -49,20 +195,11 @@ public class Versions
       
       out.println(" ");
       
-      Resource versionResource
-        =module.getResource("META-INF/spiralcraft-scm/version.properties");
-      if (versionResource!=null)
+      Properties properties=module.getVersionProperties();
+      if (properties!=null)
       { 
-        Properties properties=new Properties();
-        try
-        { 
-          properties.load(new ByteArrayInputStream(versionResource.getData()));
-          out.println("    version: "+properties.getProperty("version"));
-          out.println("      stamp: "+properties.getProperty("build.name"));
-        }
-        catch (IOException x)
-        { 
-        }
+        out.println("    version: "+properties.getProperty("version"));
+        out.println("      stamp: "+properties.getProperty("build.name"));
       }
       out.println("       path: "
         +module.getPath());
@@ -71,8 +208,87 @@ public class Versions
       out.println(" ");
       
     }
-    
-    
+  }
+  
+  private void reportJson(PrintStream out,List<Module> modules)
+  {
+    out.println("[");
+    boolean first=true;
+    for (Module module : modules)
+    {
+      if (!first)
+      { out.println(",");
+      }
+      first=false;
+      Properties properties=module.getVersionProperties();
+      out.print
+        ("  {\"name\": "+jsonString(module.getName())
+        +", \"version\": "
+        +jsonString(properties!=null?properties.getProperty("version"):null)
+        +", \"stamp\": "
+        +jsonString(properties!=null?properties.getProperty("build.name"):null)
+        +", \"path\": "+jsonString(module.getPath())
+        +", \"lastModified\": "+module.getLastModified()
+        +"}"
+        );
+    }
+    out.println();
+    out.println("]");
+  }
+  
+  private void reportCsv(PrintStream out,List<Module> modules)
+  {
+    out.println("name,version,stamp,path,lastModified");
+    for (Module module : modules)
+    {
+      Properties properties=module.getVersionProperties();
+      out.println
+        (csvField(module.getName())
+        +","+csvField(properties!=null?properties.getProperty("version"):null)
+        +","+csvField(properties!=null?properties.getProperty("build.name"):null)
+        +","+csvField(module.getPath())
+        +","+module.getLastModified()
+        );
+    }
+  }
+  
+  private static String jsonString(String value)
+  {
+    if (value==null)
+    { return "null";
+    }
+    StringBuilder buf=new StringBuilder(value.length()+2);
+    buf.append('"');
+    for (int i=0;i<value.length();i++)
+    {
+      char c=value.charAt(i);
+      if (c=='"' || c=='\\')
+      { buf.append('\\').append(c);
+      }
+      else if (c<0x20)
+      { buf.append(String.format("\\u%04x",(int) c));
+      }
+      else
+      { buf.append(c);
+      }
+    }
+    buf.append('"');
+    return buf.toString();
+  }
+  
+  private static String csvField(String value)
+  {
+    if (value==null)
+    { return "";
+    }
+    if (value.indexOf(',')>=0 
+        || value.indexOf('"')>=0 
+        || value.indexOf('\n')>=0
+        || value.indexOf('\r')>=0
+        )
+    { return "\""+value.replace("\"","\"\"")+"\"";
+    }
+    return value;
   }
   
 }
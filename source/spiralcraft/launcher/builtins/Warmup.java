@@ -0,0 +1,441 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.builtins;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import spiralcraft.launcher.ApplicationEnvironment;
+import spiralcraft.launcher.BuiltInReportEnvironment;
+import spiralcraft.launcher.LauncherThreadGroup;
+import spiralcraft.launcher.LibraryClassLoader;
+
+/**
+ * <p>Loads and initializes every class in the modules used by an
+ *   environment, in parallel, without running the environment
+ * </p>
+ * 
+ * <pre>
+ *   warmup [-threads n] [-init true|false] [-classlist file] environment
+ * </pre>
+ * 
+ * <p>Reports the number of classes loaded, the elapsed time and the 
+ *   classes that failed to load or initialize. This exercises the 
+ *   codebase after a deployment, and finds classes with unsatisfied
+ *   dependencies.
+ * </p>
+ * 
+ * <p>With -classlist, the classes that loaded successfully are written in
+ *   the JDK class list format, for creating an AppCDS archive with
+ *   -Xshare:dump -XX:SharedClassListFile. Classes from built-in loaders 
+ *   are listed by name. Classes from other loaders are listed with their
+ *   super class, interfaces and source jar, as the JDK requires for 
+ *   archiving classes from custom loaders.
+ * </p>
+ * 
+ * @author mike
+ *
+ */
+public class Warmup
+  extends BuiltInReportEnvironment
+{
+  private static final int MAX_FAILURES_REPORTED=20;
+  
+  private int threads=Runtime.getRuntime().availableProcessors();
+  private boolean initialize=true;
+  private String classList;
+  
+  /**
+   * The number of threads to load classes with. Defaults to the number of
+   *   available processors.
+   */
+  public void setThreads(int threads)
+  { this.threads=threads;
+  }
+  
+  /**
+   * Whether to run the static initializers of the loaded classes. Defaults
+   *   to true.
+   */
+  public void setInitialize(boolean initialize)
+  { this.initialize=initialize;
+  }
+  
+  /**
+   * A file to write the loaded classes to, in JDK class list format
+   */
+  public void setClassList(String classList)
+  { this.classList=classList;
+  }
+  
+  @Override
+  protected void report(PrintStream out,String[] args)
+  {
+    String environmentName=null;
+    for (int i=0;i<args.length;i++)
+    {
+      if (args[i].equals("-threads") && i+1<args.length)
+      { 
+        try
+        { threads=Integer.parseInt(args[++i]);
+        }
+        catch (NumberFormatException x)
+        { 
+          environmentName=null;
+          break;
+        }
+      }
+      else if (args[i].equals("-init") && i+1<args.length)
+      { initialize=Boolean.parseBoolean(args[++i]);
+      }
+      else if (args[i].equals("-classlist") && i+1<args.length)
+      { classList=args[++i];
+      }
+      else if (!args[i].startsWith("-") && environmentName==null)
+      { environmentName=args[i];
+      }
+      else
+      { 
+        environmentName=null;
+        break;
+      }
+    }
+    if (environmentName==null)
+    { 
+      errStream.println
+        ("Usage: warmup [-threads n] [-init true|false] [-classlist file]"
+        +" environment"
+        );
+      return;
+    }
+    
+    ApplicationEnvironment environment=null;
+    try
+    {
+      long start=System.nanoTime();
+      environment=_applicationManager.resolveEnvironment(environmentName);
+      LibraryClassLoader classLoader=environment.resolveClasspath();
+      
+      List<String> classNames=new ArrayList<String>();
+      for (String name:classLoader.listResourceNames())
+      { 
+        if (name.endsWith(".class")
+            && !name.startsWith("META-INF/")
+            && !name.endsWith("module-info.class")
+            && !name.endsWith("package-info.class")
+            )
+        { 
+          classNames.add
+            (name.substring(0,name.length()-6).replace('/','.'));
+        }
+      }
+      long resolveNanos=System.nanoTime()-start;
+      
+      out.println
+        ("Warming up "+classNames.size()+" classes from "
+        +classLoader.getClassPath()
+        );
+      out.println(" ");
+      
+      start=System.nanoTime();
+      ConcurrentLinkedQueue<Class<?>> loaded
+        =new ConcurrentLinkedQueue<Class<?>>();
+      ConcurrentLinkedQueue<String> failures
+        =new ConcurrentLinkedQueue<String>();
+      load(classNames,classLoader,loaded,failures);
+      long loadNanos=System.nanoTime()-start;
+      
+      out.println("  Resolved classpath in "+(resolveNanos/1000000)+"ms");
+      out.println
+        ("  "+(initialize?"Loaded and initialized ":"Loaded ")
+        +loaded.size()+" classes in "+(loadNanos/1000000)+"ms with "
+        +threads+" threads"
+        +(loadNanos>0
+          ?String.format(" (%.0f classes/s)",loaded.size()*1e9/loadNanos)
+          :""
+          )
+        );
+      out.println("  "+failures.size()+" failures");
+      int reported=0;
+      for (String failure:failures)
+      {
+        if (reported++==MAX_FAILURES_REPORTED)
+        { 
+          out.println("    ...");
+          break;
+        }
+        out.println("    "+failure);
+      }
+      
+      if (classList!=null)
+      {
+        int count=writeClassList(new File(classList),loaded);
+        out.println(" ");
+        out.println("  Wrote "+count+" classes to "+classList);
+      }
+    }
+    catch (Exception x)
+    { 
+      errStream.println("Error warming up "+environmentName+": "+x);
+      x.printStackTrace(errStream);
+    }
+    finally
+    {
+      if (environment!=null)
+      { environment.dispose();
+      }
+    }
+  }
+  
+  /**
+   * Load the classes, striped across the threads
+   */
+  private void load
+    (final List<String> classNames
+    ,final ClassLoader classLoader
+    ,final ConcurrentLinkedQueue<Class<?>> loaded
+    ,final ConcurrentLinkedQueue<String> failures
+    )
+  {
+    final int poolSize=Math.max(1,Math.min(threads,classNames.size()));
+    ThreadGroup group=Thread.currentThread().getThreadGroup();
+    ExecutorService executor
+      =group instanceof LauncherThreadGroup
+      ?Executors.newFixedThreadPool(poolSize,(LauncherThreadGroup) group)
+      :Executors.newFixedThreadPool(poolSize)
+      ;
+    try
+    {
+      List<Future<?>> futures=new ArrayList<Future<?>>();
+      for (int t=0;t<poolSize;t++)
+      { 
+        final int offset=t;
+        futures.add
+          (executor.submit
+            (new Runnable()
+            {
+              @Override
+              public void run()
+              { 
+                // Static initializers may look up resources or services
+                //   through the context class loader
+                Thread thread=Thread.currentThread();
+                ClassLoader contextLoader=thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try
+                {
+                  for (int i=offset;i<classNames.size();i+=poolSize)
+                  {
+                    String name=classNames.get(i);
+                    try
+                    { loaded.add(Class.forName(name,initialize,classLoader));
+                    }
+                    catch (Throwable x)
+                    { failures.add(name+": "+x);
+                    }
+                  }
+                }
+                finally
+                { thread.setContextClassLoader(contextLoader);
+                }
+              }
+            }
+            )
+          );
+      }
+      for (Future<?> future:futures)
+      { 
+        try
+        { future.get();
+        }
+        catch (ExecutionException x)
+        { x.getCause().printStackTrace(errStream);
+        }
+        catch (InterruptedException x)
+        { 
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+    finally
+    { executor.shutdown();
+    }
+  }
+  
+  /**
+   * Write the classes in the JDK class list format. Each class is preceded
+   *   by its super class and interfaces, which are referred to by id.
+   * 
+   * @return The number of classes written
+   */
+  private int writeClassList(File file,Iterable<Class<?>> classes)
+    throws IOException
+  {
+    try (PrintWriter writer
+          =new PrintWriter
+            (new OutputStreamWriter
+              (new FileOutputStream(file),StandardCharsets.UTF_8)
+            )
+        )
+    {
+      ClassListWriter classListWriter=new ClassListWriter(writer);
+      for (Class<?> clazz:classes)
+      { classListWriter.write(clazz);
+      }
+      writer.flush();
+      if (writer.checkError())
+      { throw new IOException("Error writing "+file);
+      }
+      return classListWriter.count;
+    }
+  }
+  
+  private static class ClassListWriter
+  {
+    private final PrintWriter writer;
+    private final Map<Class<?>,Integer> ids=new HashMap<Class<?>,Integer>();
+    private int count;
+    
+    ClassListWriter(PrintWriter writer)
+    { this.writer=writer;
+    }
+    
+    /**
+     * Write the class, after the classes it depends on, and return its id,
+     *   or -1 if it cannot be listed because its source is unknown
+     */
+    int write(Class<?> clazz)
+    {
+      Integer id=ids.get(clazz);
+      if (id!=null)
+      { return id;
+      }
+      if (clazz.isArray() || clazz.isPrimitive())
+      { return -1;
+      }
+      
+      String internalName=clazz.getName().replace('.','/');
+      StringBuilder line=new StringBuilder(internalName);
+      ClassLoader loader=clazz.getClassLoader();
+      if (!isBuiltIn(loader))
+      {
+        String source=findSource(loader,internalName);
+        if (source==null)
+        { 
+          ids.put(clazz,-1);
+          return -1;
+        }
+        
+        // Custom loader classes require their super class and interfaces
+        StringBuilder attributes=new StringBuilder();
+        if (clazz.getSuperclass()!=null)
+        { 
+          int superId=write(clazz.getSuperclass());
+          if (superId<0)
+          { 
+            ids.put(clazz,-1);
+            return -1;
+          }
+          attributes.append(" super: ").append(superId);
+        }
+        Class<?>[] interfaces=clazz.getInterfaces();
+        if (interfaces.length>0)
+        {
+          attributes.append(" interfaces:");
+          for (Class<?> iface:interfaces)
+          {
+            int interfaceId=write(iface);
+            if (interfaceId<0)
+            { 
+              ids.put(clazz,-1);
+              return -1;
+            }
+            attributes.append(' ').append(interfaceId);
+          }
+        }
+        line.append(" id: ").append(ids.size());
+        line.append(attributes);
+        line.append(" source: ").append(source);
+      }
+      else
+      { line.append(" id: ").append(ids.size());
+      }
+      
+      id=ids.size();
+      ids.put(clazz,id);
+      writer.println(line);
+      count++;
+      return id;
+    }
+    
+    private static boolean isBuiltIn(ClassLoader loader)
+    {
+      return loader==null
+        || loader==ClassLoader.getPlatformClassLoader()
+        || loader==ClassLoader.getSystemClassLoader()
+        ;
+    }
+    
+    /**
+     * The jar file or directory a class was loaded from
+     */
+    private static String findSource(ClassLoader loader,String internalName)
+    {
+      String path=internalName+".class";
+      URL url=loader.getResource(path);
+      if (url==null)
+      { return null;
+      }
+      String spec=url.toString();
+      if (spec.startsWith("jar:file:"))
+      { 
+        int separator=spec.indexOf("!/");
+        return separator>0
+          ?new File(urlDecode(spec.substring(9,separator))).getPath()
+          :null;
+      }
+      if (spec.startsWith("file:") && spec.endsWith(path))
+      { 
+        return new File
+          (urlDecode(spec.substring(5,spec.length()-path.length())))
+          .getPath();
+      }
+      return null;
+    }
+    
+    private static String urlDecode(String spec)
+    { 
+      return URLDecoder.decode
+        (spec.replace("+","%2B"),StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <p>Checks that AsyncOutputStream delivers all data from concurrent
+ *   writers in per-thread order, splits writes larger than its capacity,
+ *   and never buffers more than its capacity
+ * </p>
+ */
+public class AsyncOutputStreamTest
+{
+  public static void main(String[] args)
+    throws Exception
+  {
+    testConcurrentWriters();
+    testDiscardBound();
+    System.out.println("AsyncOutputStreamTest passed");
+  }
+  
+  /**
+   * Each writer writes a sequence of byte values from its own range, in
+   *   pieces of varying size, some larger than the capacity
+   */
+  private static void testConcurrentWriters()
+    throws Exception
+  {
+    final int threads=4;
+    final int range=50;
+    final int length=200000;
+    ByteArrayOutputStream target=new ByteArrayOutputStream();
+    final AsyncOutputStream out
+      =new AsyncOutputStream
+        (target,64,AsyncOutputStream.OverflowPolicy.CALLER_DRAINS);
+    
+    Thread[] writers=new Thread[threads];
+    for (int t=0;t<threads;t++)
+    {
+      final byte[] data=new byte[length];
+      for (int i=0;i<length;i++)
+      { data[i]=(byte) (t*range+i%range);
+      }
+      writers[t]
+        =new Thread
+          (new Runnable()
+          {
+            @Override
+            public void run()
+            {
+              try
+              {
+                int piece=1;
+                for (int pos=0;pos<length;)
+                { 
+                  int count=Math.min(length-pos,piece);
+                  out.write(data,pos,count);
+                  pos+=count;
+                  piece=piece%150+7;
+                }
+              }
+              catch (IOException x)
+              { throw new RuntimeException(x);
+              }
+            }
+          }
+          );
+      writers[t].start();
+    }
+    for (Thread writer:writers)
+    { writer.join();
+    }
+    out.release();
+    
+    byte[] written=target.toByteArray();
+    TestUtil.assertEquals(threads*length,written.length,"total bytes");
+    int[] next=new int[threads];
+    for (byte b:written)
+    {
+      int value=b & 0xff;
+      int t=value/range;
+      TestUtil.assertEquals(t*range+next[t]%range,value,"order of writer "+t);
+      next[t]++;
+    }
+  }
+  
+  private static void testDiscardBound()
+    throws Exception
+  {
+    final CountDownLatch release=new CountDownLatch(1);
+    OutputStream target
+      =new OutputStream()
+      {
+        @Override
+        public void write(int b)
+        { 
+        }
+        
+        @Override
+        public void write(byte[] data,int off,int len)
+        { 
+          try
+          { release.await();
+          }
+          catch (InterruptedException x)
+          { Thread.currentThread().interrupt();
+          }
+        }
+      };
+    AsyncOutputStream out
+      =new AsyncOutputStream
+        (target,100,AsyncOutputStream.OverflowPolicy.DISCARD);
+    
+    // The target blocks, so nothing is freed after the first piece
+    out.write(new byte[1000],0,1000);
+    TestUtil.assertEquals(900L,out.getDiscardedBytes(),"discarded bytes");
+    out.write(new byte[1],0,1);
+    TestUtil.assertEquals(901L,out.getDiscardedBytes(),"discarded when full");
+    release.countDown();
+    out.flush();
+    out.write(new byte[50],0,50);
+    TestUtil.assertEquals(901L,out.getDiscardedBytes(),"room after drain");
+    out.release();
+  }
+}
@@ -0,0 +1,104 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <p>Checks that a catalog restored from a CatalogIndex answers package
+ *   owner and environment lookups from the index, and resolves classes
+ *   to the library which contains them
+ * </p>
+ */
+public class CatalogIndexTest
+{
+  public static void main(String[] args)
+    throws Exception
+  {
+    File dir=TestUtil.createTempDir("spiralcraft-catalogindex-test");
+    try
+    {
+      TestUtil.writeJar
+        (new File(dir,"a.jar")
+        ,"p/A.class"
+        ,"META-INF/spiralcraft.env/alpha.env.xml"
+        );
+      TestUtil.writeJar(new File(dir,"b.jar"),"p/B.class","q/C.class");
+      
+      LibraryCatalog discovered=new LibraryCatalog(dir,false,false);
+      try
+      { 
+        TestUtil.assertTrue(discovered.getIndex()==null,"discovered");
+        TestUtil.assertTrue
+          (discovered.findPackageOwners("p")==null,"no owners unindexed");
+        CatalogIndex.build(discovered)
+          .write(new File(dir,CatalogIndex.FILE_NAME));
+      }
+      finally
+      { discovered.close();
+      }
+      
+      LibraryCatalog catalog=new LibraryCatalog(dir,false,true);
+      try
+      {
+        TestUtil.assertTrue(catalog.isIndexed(),"restored from index");
+        TestUtil.assertEquals
+          (2,catalog.findPackageOwners("p").size(),"split package owners");
+        List<Module> owners=catalog.findPackageOwners("q");
+        TestUtil.assertEquals(1,owners.size(),"package owners");
+        TestUtil.assertEquals("b",owners.get(0).name,"package owner");
+        TestUtil.assertTrue
+          (catalog.findPackageOwners("r").isEmpty(),"unknown package");
+        
+        List<Module> declaring=catalog.findEnvironmentModules("alpha");
+        TestUtil.assertEquals(1,declaring.size(),"environment modules");
+        TestUtil.assertEquals("a",declaring.get(0).name,"environment");
+        TestUtil.assertTrue
+          (catalog.findEnvironmentModules("beta").isEmpty()
+          ,"unknown environment"
+          );
+        
+        LibraryClasspath classpath=catalog.createLibraryClasspath();
+        try
+        {
+          classpath.resolveLibrariesForResource("p/B.class");
+          TestUtil.assertEquals
+            ("b",classpath.getModuleName("p/B.class"),"resolved class");
+          TestUtil.assertEquals
+            (null,classpath.getModuleName("p/A.class"),"unresolved class");
+          try
+          { 
+            classpath.resolveLibrariesForResource("q/D.class");
+            throw new AssertionError("resolved a missing class");
+          }
+          catch (IOException x)
+          { }
+        }
+        finally
+        { classpath.release();
+        }
+      }
+      finally
+      { catalog.close();
+      }
+    }
+    finally
+    { TestUtil.delete(dir);
+    }
+    System.out.println("CatalogIndexTest passed");
+  }
+}
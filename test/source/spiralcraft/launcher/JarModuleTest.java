@@ -0,0 +1,65 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.File;
+
+/**
+ * <p>Checks that a JarModule stays usable when reads which were in flight
+ *   during a forceClose() complete afterwards
+ * </p>
+ */
+public class JarModuleTest
+{
+  public static void main(String[] args)
+    throws Exception
+  {
+    File dir=TestUtil.createTempDir("spiralcraft-jarmodule-test");
+    try
+    {
+      File file=new File(dir,"a.jar");
+      TestUtil.writeJar(file,"a/x.txt");
+      JarModule module=new JarModule(file);
+      
+      // In-flight read completes after forceClose(), before the next open()
+      module.open();
+      module.forceClose();
+      module.close();
+      TestUtil.assertEquals(0,module.getOpenCount(),"count after late close");
+      module.open();
+      TestUtil.assertTrue(module.isJarOpen(),"jar reopened");
+      TestUtil.assertTrue
+        (module.getResource("a/x.txt").getData().length>0
+        ,"read after reopen"
+        );
+      module.close();
+      TestUtil.assertTrue(!module.isJarOpen(),"jar closed");
+      
+      // In-flight read completes after the next open()
+      module.open();
+      module.forceClose();
+      module.open();
+      module.close();
+      TestUtil.assertTrue(module.isJarOpen(),"jar held by second read");
+      module.close();
+      TestUtil.assertTrue(!module.isJarOpen(),"jar closed after both reads");
+      TestUtil.assertEquals(0,module.getOpenCount(),"balanced count");
+    }
+    finally
+    { TestUtil.delete(dir);
+    }
+    System.out.println("JarModuleTest passed");
+  }
+}
@@ -0,0 +1,100 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * <p>Checks that LauncherThreadGroup.join() waits for tracked threads,
+ *   including those they start, and for untracked members of the group
+ * </p>
+ */
+public class LauncherThreadGroupTest
+{
+  public static void main(String[] args)
+    throws Exception
+  {
+    final LauncherThreadGroup group=new LauncherThreadGroup();
+    final CountDownLatch release=new CountDownLatch(1);
+    final boolean[] done=new boolean[3];
+    
+    group.newThread
+      (new Runnable()
+      {
+        @Override
+        public void run()
+        { 
+          await(release);
+          group.newThread
+            (new Runnable()
+            {
+              @Override
+              public void run()
+              { 
+                sleep(50);
+                done[1]=true;
+              }
+            }
+            ).start();
+          done[0]=true;
+        }
+      }
+      ).start();
+    
+    new Thread
+      (group
+      ,new Runnable()
+      {
+        @Override
+        public void run()
+        { 
+          await(release);
+          sleep(50);
+          done[2]=true;
+        }
+      }
+      ).start();
+    
+    release.countDown();
+    group.join();
+    
+    TestUtil.assertTrue(done[0],"tracked thread completed");
+    TestUtil.assertTrue(done[1],"thread started by tracked thread completed");
+    TestUtil.assertTrue(done[2],"untracked thread completed");
+    TestUtil.assertEquals(0,group.getLiveThreadCount(),"live after join");
+    TestUtil.assertEquals(2L,group.getTotalThreadCount(),"total");
+    System.out.println("LauncherThreadGroupTest passed");
+  }
+  
+  private static void await(CountDownLatch latch)
+  {
+    try
+    { latch.await();
+    }
+    catch (InterruptedException x)
+    { throw new RuntimeException(x);
+    }
+  }
+  
+  private static void sleep(long millis)
+  {
+    try
+    { Thread.sleep(millis);
+    }
+    catch (InterruptedException x)
+    { throw new RuntimeException(x);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+/**
+ * <p>Checks that threads created through a LauncherThreadGroup are 
+ *   charged to the ResourceAccount of the launch that created them, and
+ *   to enclosing accounts
+ * </p>
+ */
+public class ResourceAccountTest
+{
+  private static volatile Object sink;
+  
+  public static void main(String[] args)
+    throws Exception
+  {
+    LauncherThreadGroup group=new LauncherThreadGroup();
+    Runnable work
+      =new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          for (int i=0;i<10000;i++)
+          { sink=new byte[128];
+          }
+        }
+      };
+    
+    ResourceAccount outer=new ResourceAccount();
+    ResourceAccount previous=outer.enter();
+    ResourceAccount inner;
+    try
+    {
+      inner=new ResourceAccount();
+      ResourceAccount enclosing=inner.enter();
+      try
+      {
+        Thread tracked=group.newThread(work);
+        tracked.start();
+        tracked.join();
+        
+        Thread untracked=new Thread(group,work);
+        untracked.start();
+        untracked.join();
+      }
+      finally
+      { ResourceAccount.restore(enclosing);
+      }
+      TestUtil.assertTrue(ResourceAccount.current()==outer,"outer restored");
+      
+      Thread tracked=group.newThread(work);
+      tracked.start();
+      tracked.join();
+    }
+    finally
+    { ResourceAccount.restore(previous);
+    }
+    TestUtil.assertTrue(ResourceAccount.current()==null,"no account");
+    
+    ResourceUsage innerUsage=inner.getUsage();
+    ResourceUsage outerUsage=outer.getUsage();
+    TestUtil.assertEquals(1L,innerUsage.getThreadCount(),"inner threads");
+    TestUtil.assertEquals(2L,outerUsage.getThreadCount(),"outer threads");
+    if (innerUsage.getAllocatedBytes()>=0)
+    { 
+      TestUtil.assertTrue
+        (innerUsage.getAllocatedBytes()>=10000*128,"inner allocation");
+      TestUtil.assertTrue
+        (outerUsage.getAllocatedBytes()>innerUsage.getAllocatedBytes()
+        ,"outer includes inner"
+        );
+    }
+    System.out.println("ResourceAccountTest passed");
+  }
+}
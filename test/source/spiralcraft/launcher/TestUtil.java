@@ -0,0 +1,84 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * <p>Assertions and file helpers for the launcher tests. Each test is a
+ *   class with a main method which throws an AssertionError on failure,
+ *   run by the unit-test target in TEST.ant.xml.
+ * </p>
+ */
+public class TestUtil
+{
+  public static void assertTrue(boolean condition,String message)
+  {
+    if (!condition)
+    { throw new AssertionError(message);
+    }
+  }
+  
+  public static void assertEquals(Object expected,Object actual,String message)
+  {
+    if (expected==null?actual!=null:!expected.equals(actual))
+    { 
+      throw new AssertionError
+        (message+": expected <"+expected+"> but was <"+actual+">");
+    }
+  }
+  
+  public static File createTempDir(String prefix)
+    throws IOException
+  { return Files.createTempDirectory(prefix).toFile();
+  }
+  
+  /**
+   * Delete a file, or a directory and its contents
+   */
+  public static void delete(File file)
+  {
+    File[] children=file.listFiles();
+    if (children!=null)
+    { 
+      for (File child:children)
+      { delete(child);
+      }
+    }
+    file.delete();
+  }
+  
+  /**
+   * Write a jar containing the named entries, each holding its own name
+   */
+  public static void writeJar(File file,String ... entries)
+    throws IOException
+  {
+    try (JarOutputStream out=new JarOutputStream(new FileOutputStream(file)))
+    {
+      for (String entry:entries)
+      {
+        out.putNextEntry(new ZipEntry(entry));
+        out.write(entry.getBytes("UTF-8"));
+        out.closeEntry();
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * <p>Lists sclib: containers, including the root, from a catalog of two
+ *   jars with overlapping directories
+ * </p>
+ */
+public class VfsResourceTest
+{
+  public static void main(String[] args)
+    throws Exception
+  {
+    File dir=TestUtil.createTempDir("spiralcraft-vfs-test");
+    try
+    {
+      TestUtil.writeJar(new File(dir,"a.jar"),"a/x.txt","shared/a.txt");
+      TestUtil.writeJar(new File(dir,"b.jar"),"b/y.txt","shared/b.txt","top.txt");
+      
+      LibraryCatalog catalog=new LibraryCatalog(dir,false);
+      try
+      {
+        VfsResource root
+          =catalog.getResourceFactory().resolve(URI.create("sclib:/"));
+        TestUtil.assertTrue(root.asContainer()!=null,"root is a container");
+        TestUtil.assertEquals
+          (new TreeSet<String>(Arrays.asList("a","b","shared","top.txt"))
+          ,names(root.listChildren())
+          ,"root children"
+          );
+        
+        VfsResource shared=root.getChild("shared");
+        TestUtil.assertEquals
+          (URI.create("sclib:/shared"),shared.getURI(),"child URI of root");
+        TestUtil.assertEquals
+          (new TreeSet<String>(Arrays.asList("a.txt","b.txt"))
+          ,names(shared.listChildren())
+          ,"merged children"
+          );
+        
+        VfsResource file=shared.getChild("b.txt");
+        TestUtil.assertEquals
+          (URI.create("sclib:/shared/b.txt"),file.getURI(),"nested child URI");
+        TestUtil.assertTrue(file.exists(),"nested child exists");
+        TestUtil.assertTrue(file.asContainer()==null,"file is not a container");
+      }
+      finally
+      { catalog.close();
+      }
+    }
+    finally
+    { TestUtil.delete(dir);
+    }
+    System.out.println("VfsResourceTest passed");
+  }
+  
+  private static TreeSet<String> names(VfsResource[] resources)
+  {
+    TreeSet<String> names=new TreeSet<String>();
+    for (VfsResource resource:resources)
+    { 
+      String path=resource.getURI().getPath();
+      names.add(path.substring(path.lastIndexOf('/')+1));
+    }
+    return names;
+  }
+}
@@ -0,0 +1,82 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import spiralcraft.util.ArrayUtil;
+
+/**
+ * <p>Runs launcher micro-benchmarks in this JVM
+ * </p>
+ * 
+ * <pre>
+ *   java spiralcraft.launcher.bench.Benchmark suite-name [-option value ...]
+ * </pre>
+ * 
+ * <p>Run with the launcher and core jars on the classpath, eg. through 
+ *   the benchmark target in TEST.ant.xml. Exits with status 1 if the
+ *   suite fails.
+ * </p>
+ * 
+ * @author mike
+ *
+ */
+public class Benchmark
+{
+  private static final Map<String,BenchmarkSuite> suites
+    =new LinkedHashMap<String,BenchmarkSuite>();
+  
+  static
+  {
+    suites.put("output",new OutputBenchmark());
+    suites.put("catalog",new CatalogBenchmark());
+    suites.put("classload",new ClassLoadBenchmark());
+    suites.put("startup",new StartupBenchmark());
+    suites.put("stress",new StressBenchmark());
+  }
+
+  public static void main(String[] args)
+  {
+    PrintStream out=System.out;
+    BenchmarkSuite suite=args.length>0?suites.get(args[0]):null;
+    if (suite==null)
+    {
+      out.println("Usage: Benchmark suite-name [-option value ...]");
+      out.println(" ");
+      for (Map.Entry<String,BenchmarkSuite> entry:suites.entrySet())
+      { 
+        out.println("  "+entry.getKey()+" "+entry.getValue().getUsage());
+        out.println("     "+entry.getValue().getDescription());
+      }
+      System.exit(args.length>0?1:0);
+    }
+    
+    try
+    {
+      out.println("Benchmark: "+args[0]+" - "+suite.getDescription());
+      out.println(" ");
+      suite.run(new BenchmarkOptions(ArrayUtil.truncateBefore(args,1)),out);
+      out.flush();
+    }
+    catch (Exception x)
+    { 
+      x.printStackTrace();
+      System.exit(1);
+    }
+  }
+}
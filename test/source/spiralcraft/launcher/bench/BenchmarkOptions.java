@@ -0,0 +1,73 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>"-name value" style options passed to a BenchmarkSuite
+ * </p>
+ */
+public class BenchmarkOptions
+{
+  private final Map<String,String> options=new HashMap<String,String>();
+  
+  public BenchmarkOptions(String[] args)
+  {
+    for (int i=0;i<args.length;i++)
+    {
+      if (!args[i].startsWith("-") || i+1>=args.length)
+      { throw new IllegalArgumentException("Expected -name value, found "+args[i]);
+      }
+      options.put(args[i].substring(1),args[++i]);
+    }
+  }
+  
+  public String get(String name,String defaultValue)
+  { 
+    String value=options.get(name);
+    return value!=null?value:defaultValue;
+  }
+  
+  public int getInt(String name,int defaultValue)
+  { 
+    String value=options.get(name);
+    return value!=null?Integer.parseInt(value):defaultValue;
+  }
+
+  public boolean getBoolean(String name,boolean defaultValue)
+  { 
+    String value=options.get(name);
+    return value!=null?Boolean.parseBoolean(value):defaultValue;
+  }
+  
+  /**
+   * Parse a comma separated list of integers, eg. "1,2,8"
+   */
+  public int[] getInts(String name,int[] defaultValue)
+  {
+    String value=options.get(name);
+    if (value==null)
+    { return defaultValue;
+    }
+    String[] parts=value.split(",");
+    int[] ints=new int[parts.length];
+    for (int i=0;i<parts.length;i++)
+    { ints[i]=Integer.parseInt(parts[i].trim());
+    }
+    return ints;
+  }
+}
@@ -0,0 +1,40 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.PrintStream;
+
+/**
+ * <p>A named group of related benchmarks run by Benchmark
+ * </p>
+ */
+public interface BenchmarkSuite
+{
+  /**
+   * A one line description of what is measured
+   */
+  String getDescription();
+  
+  /**
+   * The options understood by this suite, for usage output
+   */
+  String getUsage();
+  
+  /**
+   * Run the benchmarks and print the results
+   */
+  void run(BenchmarkOptions options,PrintStream out)
+    throws Exception;
+}
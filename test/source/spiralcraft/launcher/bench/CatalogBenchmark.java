@@ -0,0 +1,276 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import spiralcraft.launcher.LibraryCatalog;
+import spiralcraft.launcher.LibraryClasspath;
+import spiralcraft.launcher.Resource;
+
+/**
+ * <p>Measures LibraryCatalog construction, resource lookups, classpath
+ *   assembly and retained heap against generated codebases of varying
+ *   jar and entry counts.
+ * </p>
+ * 
+ * <p>The catalogs created here are not registered as the "sclib:" 
+ *   resolver, so they do not disturb the running launcher.
+ * </p>
+ */
+public class CatalogBenchmark
+  implements BenchmarkSuite
+{
+
+  @Override
+  public String getDescription()
+  { return "LibraryCatalog construction, lookups, addAllModules and heap";
+  }
+
+  @Override
+  public String getUsage()
+  { 
+    return "[-jars 10,50] [-entries 100,1000] [-lookups 10000]"
+      +" [-warmup 3] [-iterations 10]";
+  }
+
+  @Override
+  public void run(BenchmarkOptions options,PrintStream out)
+    throws Exception
+  {
+    int[] jarCounts=options.getInts("jars",new int[] {10,50});
+    int[] entryCounts=options.getInts("entries",new int[] {100,1000});
+    int lookups=options.getInt("lookups",10000);
+    int warmup=options.getInt("warmup",3);
+    int iterations=options.getInt("iterations",10);
+    
+    for (int jars:jarCounts)
+    {
+      for (int entries:entryCounts)
+      {
+        File dir=CodebaseGenerator.createTempDir("spiralcraft-catalog-bench");
+        try
+        {
+          CodebaseGenerator generator
+            =new CodebaseGenerator()
+              .setJars(jars)
+              .setEntries(entries)
+              .setEntrySize(64);
+          generator.generate(dir);
+          
+          out.println("  "+jars+" jars x "+entries+" entries");
+          Measurement.printHeader(out);
+          runCodebase
+            (dir,generator.getEntryNames(),lookups,warmup,iterations,out);
+          out.println(" ");
+        }
+        finally
+        { CodebaseGenerator.delete(dir);
+        }
+      }
+    }
+  }
+  
+  private void runCodebase
+    (final File dir
+    ,List<String> entryNames
+    ,final int lookups
+    ,int warmup
+    ,int iterations
+    ,PrintStream out
+    )
+    throws Exception
+  {
+    // Spread lookups evenly over the entries, and make misses look
+    //   like plausible names in existing packages
+    final String[] hits=new String[lookups];
+    final String[] misses=new String[lookups];
+    int step=Math.max(1,entryNames.size()/lookups);
+    for (int i=0;i<lookups;i++)
+    { 
+      hits[i]=entryNames.get((i*step)%entryNames.size());
+      misses[i]=hits[i].replace("Resource","Missing");
+    }
+    
+    Measurement.measure
+      ("new LibraryCatalog"
+      ,warmup
+      ,iterations
+      ,new Measurement.Task()
+      {
+        @Override
+        public long run()
+        { 
+          new LibraryCatalog(dir,false).close();
+          return 1;
+        }
+      }
+      ).print(out);
+    
+    final LibraryCatalog catalog=new LibraryCatalog(dir,false);
+    try
+    {
+      Measurement.measure
+        ("findResource hit"
+        ,warmup
+        ,iterations
+        ,new Measurement.Task()
+        {
+          @Override
+          public long run()
+          { 
+            int found=0;
+            for (String name:hits)
+            { 
+              if (catalog.findResource(name)!=null)
+              { found++;
+              }
+            }
+            return found;
+          }
+        }
+        ).print(out);
+
+      Measurement.measure
+        ("findResource miss"
+        ,warmup
+        ,iterations
+        ,new Measurement.Task()
+        {
+          @Override
+          public long run()
+          { 
+            for (String name:misses)
+            { catalog.findResource(name);
+            }
+            return misses.length;
+          }
+        }
+        ).print(out);
+
+      Measurement.measure
+        ("findResources hit"
+        ,warmup
+        ,iterations
+        ,new Measurement.Task()
+        {
+          @Override
+          public long run()
+          { 
+            long found=0;
+            for (String name:hits)
+            { 
+              Iterator<Resource> it=catalog.findResources(name);
+              while (it.hasNext())
+              { 
+                it.next();
+                found++;
+              }
+            }
+            return found;
+          }
+        }
+        ).print(out);
+
+      Measurement.measure
+        ("findResources miss"
+        ,warmup
+        ,iterations
+        ,new Measurement.Task()
+        {
+          @Override
+          public long run()
+          { 
+            for (String name:misses)
+            { catalog.findResources(name);
+            }
+            return misses.length;
+          }
+        }
+        ).print(out);
+      
+      Measurement.measure
+        ("addAllModules"
+        ,warmup
+        ,iterations
+        ,new Measurement.Task()
+        {
+          @Override
+          public long run()
+            throws Exception
+          { 
+            LibraryClasspath classpath=catalog.createLibraryClasspath();
+            classpath.addAllModules();
+            classpath.release();
+            return 1;
+          }
+        }
+        ).print(out);
+      
+      int entryCount=entryNames.size();
+      out.println
+        (String.format
+          ("    %-44s %10.1f bytes/entry"
+          ,"retained heap"
+          ,retainedBytes(dir,Math.max(1,200000/Math.max(1,entryCount)))
+            /entryCount
+          )
+        );
+    }
+    finally
+    { catalog.close();
+    }
+  }
+  
+  /**
+   * Measure the heap retained by a catalog of the codebase, averaged over
+   *   a number of simultaneously live copies
+   */
+  private double retainedBytes(File dir,int copies)
+  {
+    copies=Math.min(copies,100);
+    long before=usedHeap();
+    List<LibraryCatalog> catalogs=new ArrayList<LibraryCatalog>(copies);
+    for (int i=0;i<copies;i++)
+    { catalogs.add(new LibraryCatalog(dir,false));
+    }
+    long after=usedHeap();
+    for (LibraryCatalog catalog:catalogs)
+    { catalog.close();
+    }
+    return (after-before)/(double) catalogs.size();
+  }
+  
+  private long usedHeap()
+  {
+    Runtime runtime=Runtime.getRuntime();
+    long used=Long.MAX_VALUE;
+    // Repeat until collection stops making progress
+    for (int i=0;i<5;i++)
+    {
+      System.gc();
+      long current=runtime.totalMemory()-runtime.freeMemory();
+      if (current>=used)
+      { break;
+      }
+      used=current;
+    }
+    return used;
+  }
+}
@@ -0,0 +1,284 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import spiralcraft.launcher.LibraryCatalog;
+import spiralcraft.launcher.LibraryClassLoader;
+import spiralcraft.launcher.ResourceUsage;
+import spiralcraft.main.JarClassResource;
+import spiralcraft.main.LauncherClassLoader;
+
+/**
+ * <p>Compares class loading throughput and allocation of LibraryClassLoader,
+ *   the boot LauncherClassLoader over JarClassResources, and a JDK
+ *   URLClassLoader, all loading the same generated corpus of classes 
+ *   from the same jars.
+ * </p>
+ * 
+ * <p>Each iteration loads every class in the corpus into a new 
+ *   ClassLoader, split across the requested number of threads. Only the 
+ *   loading is timed- creating and disposing of the ClassLoader is not.
+ *   Allocation is measured per thread through the ThreadMXBean, and is
+ *   reported as -1 where the JVM does not support it.
+ * </p>
+ */
+public class ClassLoadBenchmark
+  implements BenchmarkSuite
+{
+
+  @Override
+  public String getDescription()
+  { return "LibraryClassLoader vs LauncherClassLoader vs URLClassLoader";
+  }
+
+  @Override
+  public String getUsage()
+  { 
+    return "[-jars 20] [-classes 250] [-classSize 1024] [-threads 1,4]"
+      +" [-warmup 3] [-iterations 10]";
+  }
+
+  @Override
+  public void run(BenchmarkOptions options,PrintStream out)
+    throws Exception
+  {
+    int jars=options.getInt("jars",20);
+    int classes=options.getInt("classes",250);
+    int warmup=options.getInt("warmup",3);
+    int iterations=options.getInt("iterations",10);
+    
+    File dir=CodebaseGenerator.createTempDir("spiralcraft-classload-bench");
+    try
+    {
+      CodebaseGenerator generator
+        =new CodebaseGenerator()
+          .setJars(jars)
+          .setEntries(0)
+          .setClasses(classes)
+          .setClassSize(options.getInt("classSize",1024));
+      generator.generate(dir);
+      
+      final File[] jarFiles=dir.listFiles();
+      final URL[] urls=new URL[jarFiles.length];
+      for (int i=0;i<jarFiles.length;i++)
+      { urls[i]=jarFiles[i].toURI().toURL();
+      }
+      final ClassLoader parent=LauncherClassLoader.class.getClassLoader();
+      final LibraryCatalog catalog=new LibraryCatalog(dir,false);
+      
+      List<String> classNames=generator.getClassNames();
+      out.println
+        ("  "+classNames.size()+" classes in "+jars+" jars");
+      out.println(" ");
+      try
+      {
+        for (int threads:options.getInts("threads",new int[] {1,4}))
+        {
+          Measurement.printHeader(out);
+          
+          measure
+            ("LibraryClassLoader, "+threads+" threads"
+            ,classNames,threads,warmup,iterations
+            ,new LoaderFactory()
+            {
+              @Override
+              public ClassLoader create()
+                throws Exception
+              { 
+                LibraryClassLoader loader=new LibraryClassLoader(catalog);
+                loader.addAllModules();
+                return loader;
+              }
+              
+              @Override
+              public void dispose(ClassLoader loader)
+              { ((LibraryClassLoader) loader).shutdown();
+              }
+            }
+            ,out
+            );
+          
+          measure
+            ("LauncherClassLoader, "+threads+" threads"
+            ,classNames,threads,warmup,iterations
+            ,new LoaderFactory()
+            {
+              @Override
+              public ClassLoader create()
+                throws Exception
+              { 
+                LauncherClassLoader loader=new LauncherClassLoader(parent);
+                for (File jarFile:jarFiles)
+                { loader.addResource(new JarClassResource(jarFile.getPath()));
+                }
+                return loader;
+              }
+              
+              @Override
+              public void dispose(ClassLoader loader)
+              { ((LauncherClassLoader) loader).shutdown();
+              }
+            }
+            ,out
+            );
+          
+          measure
+            ("URLClassLoader, "+threads+" threads"
+            ,classNames,threads,warmup,iterations
+            ,new LoaderFactory()
+            {
+              @Override
+              public ClassLoader create()
+              { return new URLClassLoader(urls,parent);
+              }
+              
+              @Override
+              public void dispose(ClassLoader loader)
+                throws Exception
+              { ((URLClassLoader) loader).close();
+              }
+            }
+            ,out
+            );
+          out.println(" ");
+        }
+      }
+      finally
+      { catalog.close();
+      }
+    }
+    finally
+    { CodebaseGenerator.delete(dir);
+    }
+  }
+  
+  private void measure
+    (String name
+    ,List<String> classNames
+    ,int threads
+    ,int warmup
+    ,int iterations
+    ,LoaderFactory factory
+    ,PrintStream out
+    )
+    throws Exception
+  {
+    final String[] names=classNames.toArray(new String[classNames.size()]);
+    AtomicLong allocated=new AtomicLong();
+    long[] nanos=new long[iterations];
+    
+    for (int i=0;i<warmup+iterations;i++)
+    {
+      ClassLoader loader=factory.create();
+      try
+      {
+        allocated.set(0);
+        long start=System.nanoTime();
+        loadAll(loader,names,threads,allocated);
+        if (i>=warmup)
+        { nanos[i-warmup]=System.nanoTime()-start;
+        }
+      }
+      finally
+      { factory.dispose(loader);
+      }
+    }
+    
+    new Measurement(name,nanos,(long) names.length*iterations).print(out);
+    long bytes=allocated.get();
+    out.println
+      (String.format
+        ("    %-44s %10s bytes/class"
+        ,"  allocated"
+        ,bytes<0?"-1":String.format("%.0f",bytes/(double) names.length)
+        )
+      );
+  }
+  
+  /**
+   * Load every class, striped across the requested number of threads,
+   *   adding the allocation of each thread to the total (or setting it
+   *   to -1 if allocation cannot be measured)
+   */
+  private void loadAll
+    (final ClassLoader loader
+    ,final String[] names
+    ,final int threads
+    ,final AtomicLong allocated
+    )
+    throws Exception
+  {
+    final AtomicReference<Throwable> failure=new AtomicReference<Throwable>();
+    Thread[] workers=new Thread[threads];
+    for (int t=0;t<threads;t++)
+    {
+      final int offset=t;
+      workers[t]
+        =new Thread
+          (new Runnable()
+          {
+            @Override
+            public void run()
+            {
+              long startBytes=ResourceUsage.currentThreadAllocatedBytes();
+              try
+              {
+                for (int i=offset;i<names.length;i+=threads)
+                { Class.forName(names[i],false,loader);
+                }
+              }
+              catch (Throwable x)
+              { failure.compareAndSet(null,x);
+              }
+              long endBytes=ResourceUsage.currentThreadAllocatedBytes();
+              if (startBytes<0 || endBytes<0)
+              { allocated.set(-1);
+              }
+              else if (allocated.get()>=0)
+              { allocated.addAndGet(endBytes-startBytes);
+              }
+            }
+          }
+          );
+      workers[t].start();
+    }
+    for (Thread worker:workers)
+    { worker.join();
+    }
+    if (failure.get()!=null)
+    { throw new Exception("Error loading classes",failure.get());
+    }
+  }
+  
+  /**
+   * Creates and disposes of the ClassLoader under test
+   */
+  private interface LoaderFactory
+  {
+    ClassLoader create()
+      throws Exception;
+    
+    void dispose(ClassLoader loader)
+      throws Exception;
+  }
+}
@@ -0,0 +1,516 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * <p>Generates a synthetic codebase library directory of jar modules and
+ *   native libraries, for benchmarking and stress testing the catalog,
+ *   classloaders and environment resolution at controlled sizes without
+ *   access to a production codebase.
+ * </p>
+ * 
+ * <p>Each jar "gen-module-N.jar" contains the configured number of 
+ *   resource entries and classes, spread over the configured number of
+ *   packages. Entry content is pseudo-random but reproducible for a given
+ *   seed. Classes are minimal valid class files, padded with an unused
+ *   constant to approximately the configured size.
+ * </p>
+ * 
+ * <p>Optionally, each module depends on the modules generated before it
+ *   through its manifest Class-Path, is written in several versions 
+ *   ("gen-module-N-1.V.jar", with the same content and a 
+ *   META-INF/spiralcraft-scm/version.properties), stores a percentage
+ *   of its entries uncompressed, and declares an environment
+ *   "gen-env-N" in META-INF/spiralcraft.env that runs a no-op main class
+ *   in the module. Native libraries "gen-native-N.so" are stub files.
+ * </p>
+ */
+public class CodebaseGenerator
+{
+  private int jars=10;
+  private int packages=10;
+  private int entries=100;
+  private int entrySize=512;
+  private int classes=0;
+  private int classSize=1024;
+  private int nativeLibraries=0;
+  private int nativeSize=4096;
+  private int dependencies=0;
+  private int versions=1;
+  private int storedPercent=0;
+  private int environments=0;
+  private long seed=1;
+  
+  private final List<String> entryNames=new ArrayList<String>();
+  private final List<String> classNames=new ArrayList<String>();
+  
+  /**
+   * The number of jar modules to generate
+   */
+  public CodebaseGenerator setJars(int jars)
+  { 
+    this.jars=jars;
+    return this;
+  }
+  
+  /**
+   * The number of packages (directories) in each jar
+   */
+  public CodebaseGenerator setPackages(int packages)
+  { 
+    this.packages=packages;
+    return this;
+  }
+  
+  /**
+   * The number of resource entries in each jar
+   */
+  public CodebaseGenerator setEntries(int entries)
+  { 
+    this.entries=entries;
+    return this;
+  }
+  
+  /**
+   * The size in bytes of each resource entry
+   */
+  public CodebaseGenerator setEntrySize(int entrySize)
+  { 
+    this.entrySize=entrySize;
+    return this;
+  }
+  
+  /**
+   * The number of classes in each jar
+   */
+  public CodebaseGenerator setClasses(int classes)
+  { 
+    this.classes=classes;
+    return this;
+  }
+  
+  /**
+   * The approximate size in bytes of each class file
+   */
+  public CodebaseGenerator setClassSize(int classSize)
+  { 
+    this.classSize=classSize;
+    return this;
+  }
+  
+  /**
+   * The number of native library stubs to generate
+   */
+  public CodebaseGenerator setNativeLibraries(int nativeLibraries)
+  { 
+    this.nativeLibraries=nativeLibraries;
+    return this;
+  }
+  
+  /**
+   * The size in bytes of each native library stub
+   */
+  public CodebaseGenerator setNativeSize(int nativeSize)
+  { 
+    this.nativeSize=nativeSize;
+    return this;
+  }
+  
+  /**
+   * The number of preceding modules each module lists in its manifest
+   *   Class-Path, which forms an acyclic dependency graph. 0, the default, 
+   *   generates independent modules.
+   */
+  public CodebaseGenerator setDependencies(int dependencies)
+  { 
+    this.dependencies=dependencies;
+    return this;
+  }
+  
+  /**
+   * The number of versions of each module to generate. Dependencies 
+   *   refer to the latest version.
+   */
+  public CodebaseGenerator setVersions(int versions)
+  { 
+    this.versions=Math.max(1,versions);
+    return this;
+  }
+  
+  /**
+   * The percentage of entries to write STORED instead of DEFLATED
+   */
+  public CodebaseGenerator setStoredPercent(int storedPercent)
+  { 
+    this.storedPercent=storedPercent;
+    return this;
+  }
+  
+  /**
+   * The number of modules that declare an environment in 
+   *   META-INF/spiralcraft.env
+   */
+  public CodebaseGenerator setEnvironments(int environments)
+  { 
+    this.environments=environments;
+    return this;
+  }
+  
+  public CodebaseGenerator setSeed(long seed)
+  { 
+    this.seed=seed;
+    return this;
+  }
+  
+  /**
+   * The names of all the entries written by the last call to generate()
+   */
+  public List<String> getEntryNames()
+  { return entryNames;
+  }
+  
+  /**
+   * The binary names of all the classes written by the last call to 
+   *   generate()
+   */
+  public List<String> getClassNames()
+  { return classNames;
+  }
+  
+  /**
+   * The module name (the jar file name without ".jar") of a version of 
+   *   a generated module
+   */
+  public String getModuleName(int jar,int version)
+  { 
+    return versions>1
+      ?"gen-module-"+jar+"-"+versionString(version)
+      :"gen-module-"+jar;
+  }
+  
+  /**
+   * The name of the environment declared by a generated module
+   */
+  public String getEnvironmentName(int jar)
+  { return "gen-env-"+jar;
+  }
+  
+  /**
+   * The binary name of the no-op main class in a generated module
+   *   that declares an environment
+   */
+  public String getMainClassName(int jar)
+  { return "gen.m"+jar+".Main";
+  }
+  
+  /**
+   * Write the jars and native libraries into the specified library 
+   *   directory, which is created if necessary.
+   */
+  public void generate(File libDir)
+    throws IOException
+  {
+    if (!libDir.isDirectory() && !libDir.mkdirs())
+    { throw new IOException("Could not create "+libDir);
+    }
+    
+    entryNames.clear();
+    classNames.clear();
+    Random random=new Random(seed);
+    byte[] content=new byte[entrySize];
+    for (int jar=0;jar<jars;jar++)
+    {
+      for (int version=0;version<versions;version++)
+      { 
+        // Versions differ only in name and version.properties, so 
+        //   they shadow each other's entries
+        random.setSeed(seed+jar);
+        writeModule(libDir,jar,version,random,content,version==0);
+      }
+    }
+    
+    byte[] nativeContent=new byte[nativeSize];
+    for (int lib=0;lib<nativeLibraries;lib++)
+    {
+      random.nextBytes(nativeContent);
+      // ELF magic, so the stub at least looks like a shared library
+      nativeContent[0]=0x7F;
+      nativeContent[1]='E';
+      nativeContent[2]='L';
+      nativeContent[3]='F';
+      try (FileOutputStream out
+            =new FileOutputStream(new File(libDir,"gen-native-"+lib+".so"))
+          )
+      { out.write(nativeContent,0,Math.max(4,nativeSize));
+      }
+    }
+  }
+  
+  private void writeModule
+    (File libDir,int jar,int version,Random random,byte[] content,boolean record)
+    throws IOException
+  {
+    Manifest manifest=new Manifest();
+    Attributes attributes=manifest.getMainAttributes();
+    attributes.put(Attributes.Name.MANIFEST_VERSION,"1.0");
+    attributes.put(Attributes.Name.IMPLEMENTATION_TITLE,"gen-module-"+jar);
+    attributes.put
+      (Attributes.Name.IMPLEMENTATION_VERSION,versionString(version));
+    if (dependencies>0 && jar>0)
+    {
+      StringBuilder classPath=new StringBuilder();
+      for (int dep=jar-1;dep>=Math.max(0,jar-dependencies);dep--)
+      { 
+        if (classPath.length()>0)
+        { classPath.append(' ');
+        }
+        classPath.append(getModuleName(dep,versions-1)).append(".jar");
+      }
+      attributes.put(Attributes.Name.CLASS_PATH,classPath.toString());
+    }
+    
+    String moduleName=getModuleName(jar,version);
+    int count=0;
+    try (JarOutputStream out
+          =new JarOutputStream
+            (new FileOutputStream(new File(libDir,moduleName+".jar"))
+            ,manifest
+            )
+        )
+    {
+      writeEntry
+        (out
+        ,"META-INF/spiralcraft-scm/version.properties"
+        ,("version="+versionString(version)+"\nbuild.name="+moduleName+"\n")
+          .getBytes(StandardCharsets.UTF_8)
+        ,count++
+        );
+      
+      if (jar<environments)
+      {
+        writeEntry
+          (out
+          ,"META-INF/spiralcraft.env/"+getEnvironmentName(jar)+".env.xml"
+          ,("<launcher:ApplicationEnvironment\n"
+            +"  xmlns:launcher=\"class:/spiralcraft/launcher/\"\n"
+            +"  >\n"
+            +"  <mainClass>"+getMainClassName(jar)+"\n"
+            +"  </mainClass>\n"
+            +"  <mainMethodName>main\n"
+            +"  </mainMethodName>\n"
+            +"  <modules>\n"
+            +"    <String>"+getModuleName(jar,versions-1)+"\n"
+            +"    </String>\n"
+            +"  </modules>\n"
+            +"</launcher:ApplicationEnvironment>\n"
+            ).getBytes(StandardCharsets.UTF_8)
+          ,count++
+          );
+        writeEntry
+          (out
+          ,"gen/m"+jar+"/Main.class"
+          ,mainClassFile("gen/m"+jar+"/Main")
+          ,count++
+          );
+      }
+      
+      for (int entry=0;entry<entries;entry++)
+      {
+        String name
+          ="gen/m"+jar+"/p"+(entry%Math.max(1,packages))
+          +"/Resource"+entry+".txt";
+        random.nextBytes(content);
+        writeEntry(out,name,content,count++);
+        if (record)
+        { entryNames.add(name);
+        }
+      }
+      
+      for (int clazz=0;clazz<classes;clazz++)
+      {
+        String internalName
+          ="gen/m"+jar+"/p"+(clazz%Math.max(1,packages))+"/C"+clazz;
+        writeEntry
+          (out,internalName+".class",classFile(internalName,classSize),count++);
+        if (record)
+        { classNames.add(internalName.replace('/','.'));
+        }
+      }
+    }
+  }
+  
+  /**
+   * Write an entry, STORED for the configured percentage of entries and
+   *   DEFLATED otherwise
+   */
+  private void writeEntry
+    (JarOutputStream out,String name,byte[] data,int count)
+    throws IOException
+  {
+    JarEntry entry=new JarEntry(name);
+    // Spread STORED entries evenly through the jar
+    if ((count+1)*storedPercent/100>count*storedPercent/100)
+    { 
+      CRC32 crc=new CRC32();
+      crc.update(data);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(data.length);
+      entry.setCompressedSize(data.length);
+      entry.setCrc(crc.getValue());
+    }
+    out.putNextEntry(entry);
+    out.write(data);
+    out.closeEntry();
+  }
+  
+  private static String versionString(int version)
+  { return "1."+version;
+  }
+  
+  /**
+   * <p>Create a minimal valid class file for a public class with no
+   *   members that extends java.lang.Object. The constant pool is padded
+   *   with an unused Utf8 constant to approach the requested size.
+   * </p>
+   * 
+   * @param internalName The class name in internal form, eg. "a/b/C"
+   */
+  public static byte[] classFile(String internalName,int size)
+  { return classFile(internalName,size,false);
+  }
+  
+  /**
+   * Create a minimal valid class file for a public class that extends
+   *   java.lang.Object and has a "public static void main(String[])"
+   *   method which returns immediately.
+   * 
+   * @param internalName The class name in internal form, eg. "a/b/Main"
+   */
+  public static byte[] mainClassFile(String internalName)
+  { return classFile(internalName,0,true);
+  }
+  
+  private static byte[] classFile(String internalName,int size,boolean main)
+  {
+    try
+    {
+      ByteArrayOutputStream bytes=new ByteArrayOutputStream(size+64);
+      DataOutputStream out=new DataOutputStream(bytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0); // minor version
+      out.writeShort(52); // major version- Java 8
+      
+      out.writeShort(main?9:6); // constant pool count + 1
+      out.writeByte(7); // #1 Class
+      out.writeShort(2);
+      out.writeByte(1); // #2 Utf8 this class name
+      out.writeUTF(internalName);
+      out.writeByte(7); // #3 Class
+      out.writeShort(4);
+      out.writeByte(1); // #4 Utf8 super class name
+      out.writeUTF("java/lang/Object");
+      out.writeByte(1); // #5 Utf8 padding
+      int padding=Math.max(0,Math.min(60000,size-out.size()-16));
+      char[] pad=new char[padding];
+      Arrays.fill(pad,'x');
+      out.writeUTF(new String(pad));
+      if (main)
+      {
+        out.writeByte(1); // #6 Utf8 method name
+        out.writeUTF("main");
+        out.writeByte(1); // #7 Utf8 method descriptor
+        out.writeUTF("([Ljava/lang/String;)V");
+        out.writeByte(1); // #8 Utf8 attribute name
+        out.writeUTF("Code");
+      }
+      
+      out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+      out.writeShort(1); // this class
+      out.writeShort(3); // super class
+      out.writeShort(0); // interfaces
+      out.writeShort(0); // fields
+      if (main)
+      {
+        out.writeShort(1); // methods
+        out.writeShort(0x0009); // ACC_PUBLIC | ACC_STATIC
+        out.writeShort(6);
+        out.writeShort(7);
+        out.writeShort(1); // attributes
+        out.writeShort(8); // Code
+        out.writeInt(13);
+        out.writeShort(0); // max stack
+        out.writeShort(1); // max locals
+        out.writeInt(1); // code length
+        out.writeByte(0xB1); // return
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+      }
+      else
+      { out.writeShort(0); // methods
+      }
+      out.writeShort(0); // attributes
+      out.flush();
+      return bytes.toByteArray();
+    }
+    catch (IOException x)
+    { throw new IllegalStateException(x);
+    }
+  }
+  
+  /**
+   * Create an empty temporary directory
+   */
+  public static File createTempDir(String prefix)
+    throws IOException
+  {
+    File dir=File.createTempFile(prefix,"");
+    if (!dir.delete() || !dir.mkdir())
+    { throw new IOException("Could not create temporary directory "+dir);
+    }
+    return dir;
+  }
+  
+  /**
+   * Delete a generated directory tree
+   */
+  public static void delete(File file)
+  {
+    File[] children=file.listFiles();
+    if (children!=null)
+    {
+      for (File child:children)
+      { delete(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,110 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.File;
+import java.io.PrintStream;
+
+import spiralcraft.util.ArrayUtil;
+
+/**
+ * <p>Generates a synthetic codebase for reproducible, offline performance
+ *   and stress testing of the launcher
+ * </p>
+ * 
+ * <pre>
+ *   java spiralcraft.launcher.bench.GenCodebase directory [-option value ...]
+ * </pre>
+ * 
+ * <p>The jars and native library stubs are written to directory/lib, so
+ *   the result can be used with "--codebase directory". See
+ *   CodebaseGenerator for a description of the generated modules.
+ * </p>
+ * 
+ * @author mike
+ *
+ */
+public class GenCodebase
+{
+
+  public static void main(String[] args)
+  {
+    PrintStream out=System.out;
+    if (args.length==0 || args[0].startsWith("-"))
+    {
+      out.println("Usage: GenCodebase directory [-option value ...]");
+      out.println(" ");
+      out.println("  -jars n           Jar modules (10)");
+      out.println("  -packages n       Packages per jar (10)");
+      out.println("  -classes n        Classes per jar (0)");
+      out.println("  -classSize n      Approximate class file size (1024)");
+      out.println("  -entries n        Resource entries per jar (100)");
+      out.println("  -entrySize n      Resource entry size (512)");
+      out.println("  -natives n        Native library stubs (0)");
+      out.println("  -nativeSize n     Native library stub size (4096)");
+      out.println("  -dependencies n   Preceding modules in each Class-Path (0)");
+      out.println("  -versions n       Versions of each module (1)");
+      out.println("  -stored percent   Entries written STORED, not DEFLATED (0)");
+      out.println("  -environments n   Modules declaring a gen-env-N environment (0)");
+      out.println("  -seed n           Random seed (1)");
+      return;
+    }
+    
+    try
+    {
+      BenchmarkOptions options
+        =new BenchmarkOptions(ArrayUtil.truncateBefore(args,1));
+      CodebaseGenerator generator
+        =new CodebaseGenerator()
+          .setJars(options.getInt("jars",10))
+          .setPackages(options.getInt("packages",10))
+          .setClasses(options.getInt("classes",0))
+          .setClassSize(options.getInt("classSize",1024))
+          .setEntries(options.getInt("entries",100))
+          .setEntrySize(options.getInt("entrySize",512))
+          .setNativeLibraries(options.getInt("natives",0))
+          .setNativeSize(options.getInt("nativeSize",4096))
+          .setDependencies(options.getInt("dependencies",0))
+          .setVersions(options.getInt("versions",1))
+          .setStoredPercent(options.getInt("stored",0))
+          .setEnvironments(options.getInt("environments",0))
+          .setSeed(options.getInt("seed",1));
+      
+      File libDir=new File(args[0],"lib");
+      long start=System.nanoTime();
+      generator.generate(libDir);
+      
+      long bytes=0;
+      File[] files=libDir.listFiles();
+      for (File file:files)
+      { bytes+=file.length();
+      }
+      out.println
+        ("Generated "+files.length+" files, "+(bytes/1024)+"K in "+libDir
+        +" in "+((System.nanoTime()-start)/1000000)+"ms"
+        );
+      out.println
+        ("  "+generator.getEntryNames().size()+" resources, "
+        +generator.getClassNames().size()+" classes per version"
+        );
+    }
+    catch (Exception x)
+    { 
+      System.err.println("Error generating codebase: "+x);
+      x.printStackTrace();
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * <p>Times repeated runs of a task after a number of warm-up runs, and
+ *   summarizes the result.
+ * </p>
+ */
+public class Measurement
+{
+  
+  /**
+   * A unit of benchmark work
+   */
+  public interface Task
+  {
+    /**
+     * Perform one iteration of the benchmark
+     * 
+     * @return The number of operations performed, for throughput reporting
+     */
+    long run()
+      throws Exception;
+  }
+  
+  /**
+   * Run the task the specified number of times, discarding the first 
+   *   "warmup" runs, and return the timing of the remaining runs.
+   */
+  public static Measurement measure
+    (String name,int warmup,int iterations,Task task)
+    throws Exception
+  {
+    for (int i=0;i<warmup;i++)
+    { task.run();
+    }
+    
+    long[] nanos=new long[iterations];
+    long operations=0;
+    for (int i=0;i<iterations;i++)
+    {
+      long start=System.nanoTime();
+      operations+=task.run();
+      nanos[i]=System.nanoTime()-start;
+    }
+    return new Measurement(name,nanos,operations);
+  }
+  
+  private final String name;
+  private final long[] nanos;
+  private final long operations;
+  
+  public Measurement(String name,long[] nanos,long operations)
+  { 
+    this.name=name;
+    this.nanos=nanos.clone();
+    Arrays.sort(this.nanos);
+    this.operations=operations;
+  }
+  
+  public String getName()
+  { return name;
+  }
+  
+  public int getIterations()
+  { return nanos.length;
+  }
+  
+  public double getMeanMillis()
+  { 
+    double total=0;
+    for (long sample:nanos)
+    { total+=sample;
+    }
+    return nanos.length>0?total/nanos.length/1000000.0:0;
+  }
+  
+  public double getStdDevMillis()
+  {
+    double mean=getMeanMillis();
+    double variance=0;
+    for (long sample:nanos)
+    { 
+      double delta=sample/1000000.0-mean;
+      variance+=delta*delta;
+    }
+    return nanos.length>1?Math.sqrt(variance/(nanos.length-1)):0;
+  }
+  
+  /**
+   * The sample at the specified percentile (0-100), in milliseconds
+   */
+  public double getPercentileMillis(double percentile)
+  {
+    if (nanos.length==0)
+    { return 0;
+    }
+    int index=(int) Math.ceil(percentile/100.0*nanos.length)-1;
+    return nanos[Math.max(0,Math.min(nanos.length-1,index))]/1000000.0;
+  }
+  
+  /**
+   * Operations per second over all measured iterations
+   */
+  public double getThroughput()
+  {
+    long total=0;
+    for (long sample:nanos)
+    { total+=sample;
+    }
+    return total>0?operations*1000000000.0/total:0;
+  }
+  
+  public static void printHeader(PrintStream out)
+  {
+    out.println
+      (String.format
+        ("    %-44s %10s %10s %10s %14s"
+        ,"benchmark","mean ms","+/- ms","p90 ms","ops/s"
+        )
+      );
+  }
+  
+  public void print(PrintStream out)
+  {
+    out.println
+      (String.format
+        ("    %-44s %10.3f %10.3f %10.3f %14.1f"
+        ,name
+        ,getMeanMillis()
+        ,getStdDevMillis()
+        ,getPercentileMillis(90)
+        ,getThroughput()
+        )
+      );
+  }
+}
@@ -0,0 +1,140 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import spiralcraft.launcher.AsyncOutputStream;
+
+/**
+ * <p>Compares line output throughput of an autoflushing PrintStream, which
+ *   is what launched applications get by default for redirected output,
+ *   with an AsyncOutputStream over the same unbuffered file.
+ * </p>
+ */
+public class OutputBenchmark
+  implements BenchmarkSuite
+{
+
+  @Override
+  public String getDescription()
+  { return "Synchronous vs asynchronous redirected output throughput";
+  }
+  
+  @Override
+  public String getUsage()
+  { 
+    return "[-lines 100000] [-lineLength 80] [-threads 1,4]"
+      +" [-warmup 3] [-iterations 10]";
+  }
+
+  @Override
+  public void run(BenchmarkOptions options,PrintStream out)
+    throws Exception
+  {
+    final int lines=options.getInt("lines",100000);
+    int lineLength=options.getInt("lineLength",80);
+    int warmup=options.getInt("warmup",3);
+    int iterations=options.getInt("iterations",10);
+    
+    StringBuilder buf=new StringBuilder();
+    while (buf.length()<lineLength)
+    { buf.append("0123456789");
+    }
+    final String line=buf.substring(0,lineLength);
+    final File file=File.createTempFile("spiralcraft-output-bench",".out");
+    file.deleteOnExit();
+    
+    Measurement.printHeader(out);
+    try
+    {
+      for (final int threads:options.getInts("threads",new int[] {1,4}))
+      {
+        Measurement.measure
+          ("autoflush PrintStream, "+threads+" threads"
+          ,warmup
+          ,iterations
+          ,new Measurement.Task()
+          {
+            @Override
+            public long run()
+              throws Exception
+            {
+              PrintStream stream
+                =new PrintStream(new FileOutputStream(file),true);
+              writeLines(stream,line,lines,threads);
+              stream.close();
+              return lines;
+            }
+          }
+          ).print(out);
+        
+        Measurement.measure
+          ("AsyncOutputStream, "+threads+" threads"
+          ,warmup
+          ,iterations
+          ,new Measurement.Task()
+          {
+            @Override
+            public long run()
+              throws Exception
+            {
+              OutputStream target=new FileOutputStream(file);
+              PrintStream stream
+                =new PrintStream(new AsyncOutputStream(target),false);
+              writeLines(stream,line,lines,threads);
+              stream.close();
+              return lines;
+            }
+          }
+          ).print(out);
+      }
+    }
+    finally
+    { file.delete();
+    }
+  }
+  
+  private void writeLines
+    (final PrintStream stream,final String line,int lines,int threads)
+    throws InterruptedException
+  {
+    final int linesPerThread=lines/threads;
+    Thread[] writers=new Thread[threads];
+    for (int i=0;i<threads;i++)
+    {
+      writers[i]
+        =new Thread
+          (new Runnable()
+          {
+            @Override
+            public void run()
+            {
+              for (int j=0;j<linesPerThread;j++)
+              { stream.println(line);
+              }
+            }
+          }
+          );
+      writers[i].start();
+    }
+    for (Thread writer:writers)
+    { writer.join();
+    }
+  }
+}
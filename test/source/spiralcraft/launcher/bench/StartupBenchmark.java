@@ -0,0 +1,327 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * <p>Measures end-to-end startup by repeatedly launching 
+ *   spiralcraft.main.Spiralcraft in fresh JVMs against a generated 
+ *   codebase and a no-op environment, and checks the results against
+ *   a budget.
+ * </p>
+ * 
+ * <p>Each run is launched with --timeline-json. Time to entry is measured
+ *   from just before the process is started to the launcher's entry 
+ *   point mark, and so includes JVM startup. The resident set size is 
+ *   the one recorded by the launcher at the entry point. Time to exit is
+ *   measured until the process terminates.
+ * </p>
+ * 
+ * <p>The budget is a properties file containing any of the keys
+ *   entry.p50.ms, entry.p90.ms, entry.max.ms, exit.p50.ms, exit.p90.ms,
+ *   rss.p50.kb and rss.max.kb. The results are written to a properties 
+ *   file with the same keys, plus "regression" and "regression.detail" 
+ *   when a measurement exceeds its budget, so a build can fail on them.
+ * </p>
+ */
+public class StartupBenchmark
+  implements BenchmarkSuite
+{
+  private static final Pattern ORIGIN
+    =Pattern.compile("\"originEpochMs\": (\\d+)");
+  private static final Pattern RSS
+    =Pattern.compile("\"rssKb\": (\\d+)");
+  private static final Pattern ENTRY
+    =Pattern.compile("\\{\"name\": \"entry\\(.*?, \"startMs\": ([0-9.]+)");
+
+  @Override
+  public String getDescription()
+  { return "Time and RSS to entry point of fresh launcher JVMs";
+  }
+
+  @Override
+  public String getUsage()
+  { 
+    return "[-runs 10] [-warmup 1] [-codebase dir] [-environment gen-env-0]"
+      +" [-launcher spiralcraft.jar] [-jvmArgs \"...\"] [-budget file]"
+      +" [-result file]";
+  }
+
+  @Override
+  public void run(BenchmarkOptions options,PrintStream out)
+    throws Exception
+  {
+    int runs=options.getInt("runs",10);
+    int warmup=options.getInt("warmup",1);
+    String environment=options.get("environment","gen-env-0");
+    File launcher
+      =new File
+        (options.get
+          ("launcher"
+          ,System.getProperty("spiralcraft.home")
+            +File.separator+"lib"+File.separator+"spiralcraft.jar"
+          )
+        );
+    if (!launcher.isFile())
+    { throw new IOException("Launcher jar "+launcher+" not found");
+    }
+    
+    File generated=null;
+    File codebase;
+    if (options.get("codebase",null)!=null)
+    { codebase=new File(options.get("codebase",null));
+    }
+    else
+    { 
+      generated=CodebaseGenerator.createTempDir("spiralcraft-startup-bench");
+      codebase=generated;
+      new CodebaseGenerator()
+        .setJars(20)
+        .setClasses(50)
+        .setEntries(50)
+        .setDependencies(2)
+        .setEnvironments(1)
+        .generate(new File(codebase,"lib"));
+    }
+    
+    try
+    {
+      List<String> command=new ArrayList<String>();
+      command.add
+        (System.getProperty("java.home")
+          +File.separator+"bin"+File.separator+"java"
+        );
+      String jvmArgs=options.get("jvmArgs",null);
+      if (jvmArgs!=null && !jvmArgs.trim().isEmpty())
+      { command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+      }
+      command.add("-jar");
+      command.add(launcher.getAbsolutePath());
+      command.add("--codebase");
+      command.add(codebase.getAbsolutePath());
+      
+      out.println("  "+String.join(" ",command)+" ... "+environment);
+      out.println
+        ("  "+runs+" runs after "+warmup+" warm-up runs");
+      out.println(" ");
+      
+      long[] entryNanos=new long[runs];
+      long[] exitNanos=new long[runs];
+      long[] rssKb=new long[runs];
+      for (int i=0;i<warmup+runs;i++)
+      {
+        long[] sample=launch(command,environment);
+        if (i>=warmup)
+        {
+          entryNanos[i-warmup]=sample[0];
+          exitNanos[i-warmup]=sample[1];
+          rssKb[i-warmup]=sample[2];
+        }
+      }
+      
+      Measurement entry=new Measurement("time to entry",entryNanos,runs);
+      Measurement exit=new Measurement("time to exit",exitNanos,runs);
+      Arrays.sort(rssKb);
+      
+      Properties result=new Properties();
+      result.setProperty("runs",Integer.toString(runs));
+      result.setProperty("entry.p50.ms",format(entry.getPercentileMillis(50)));
+      result.setProperty("entry.p90.ms",format(entry.getPercentileMillis(90)));
+      result.setProperty("entry.max.ms",format(entry.getPercentileMillis(100)));
+      result.setProperty("exit.p50.ms",format(exit.getPercentileMillis(50)));
+      result.setProperty("exit.p90.ms",format(exit.getPercentileMillis(90)));
+      if (rssKb[0]>=0)
+      { 
+        result.setProperty("rss.p50.kb",Long.toString(percentile(rssKb,50)));
+        result.setProperty("rss.max.kb",Long.toString(percentile(rssKb,100)));
+      }
+      
+      out.println
+        (String.format
+          ("    %-20s %10s %10s %10s %10s","","p50","p90","max","mean")
+        );
+      printRow(out,"entry ms",entry);
+      printRow(out,"exit ms",exit);
+      if (rssKb[0]>=0)
+      {
+        out.println
+          (String.format
+            ("    %-20s %10d %10d %10d"
+            ,"rss KB"
+            ,percentile(rssKb,50)
+            ,percentile(rssKb,90)
+            ,percentile(rssKb,100)
+            )
+          );
+      }
+      out.println(" ");
+      
+      String budgetFile=options.get("budget",null);
+      if (budgetFile!=null)
+      { checkBudget(budgetFile,result,out);
+      }
+      
+      String resultFile=options.get("result",null);
+      if (resultFile!=null)
+      {
+        try (OutputStream resultOut=new FileOutputStream(resultFile))
+        { result.store(resultOut,"spiralcraft startup benchmark");
+        }
+        out.println("  Results written to "+resultFile);
+      }
+    }
+    finally
+    { 
+      if (generated!=null)
+      { CodebaseGenerator.delete(generated);
+      }
+    }
+  }
+  
+  /**
+   * Launch a JVM and return the time to entry and exit in nanoseconds, and
+   *   the resident set size at entry in KB (-1 if not reported)
+   */
+  private long[] launch(List<String> baseCommand,String environment)
+    throws Exception
+  {
+    File timeline=File.createTempFile("spiralcraft-startup",".json");
+    File log=File.createTempFile("spiralcraft-startup",".log");
+    try
+    {
+      List<String> command=new ArrayList<String>(baseCommand);
+      command.add("--timeline-json");
+      command.add(timeline.getAbsolutePath());
+      command.add(environment);
+      
+      ProcessBuilder builder=new ProcessBuilder(command);
+      builder.redirectErrorStream(true);
+      builder.redirectOutput(log);
+      
+      long spawnMillis=System.currentTimeMillis();
+      long spawnNanos=System.nanoTime();
+      Process process=builder.start();
+      int status=process.waitFor();
+      long exitNanos=System.nanoTime()-spawnNanos;
+      
+      String json
+        =new String(Files.readAllBytes(timeline.toPath()),StandardCharsets.UTF_8);
+      Matcher origin=ORIGIN.matcher(json);
+      Matcher entry=ENTRY.matcher(json);
+      if (status!=0 || !origin.find() || !entry.find())
+      { 
+        throw new IOException
+          ("Launch did not reach the entry point (exit status "+status+"): "
+          +String.join(" ",command)+"\n"
+          +new String(Files.readAllBytes(log.toPath()),StandardCharsets.UTF_8)
+          );
+      }
+      
+      double entryMillis
+        =Long.parseLong(origin.group(1))
+        +Double.parseDouble(entry.group(1))
+        -spawnMillis;
+      Matcher rss=RSS.matcher(json);
+      return new long[] 
+        {(long) (entryMillis*1000000)
+        ,exitNanos
+        ,rss.find()?Long.parseLong(rss.group(1)):-1
+        };
+    }
+    finally
+    { 
+      timeline.delete();
+      log.delete();
+    }
+  }
+  
+  private void checkBudget(String budgetFile,Properties result,PrintStream out)
+    throws IOException
+  {
+    Properties budget=new Properties();
+    try (InputStream in=new FileInputStream(budgetFile))
+    { budget.load(in);
+    }
+    
+    StringBuilder regressions=new StringBuilder();
+    for (String key:budget.stringPropertyNames())
+    {
+      String measured=result.getProperty(key);
+      if (measured==null)
+      { continue;
+      }
+      double limit=Double.parseDouble(budget.getProperty(key).trim());
+      boolean over=Double.parseDouble(measured)>limit;
+      out.println
+        ("  "+(over?"OVER  ":"ok    ")+key+" "+measured+" (budget "
+        +budget.getProperty(key).trim()+")"
+        );
+      if (over)
+      {
+        if (regressions.length()>0)
+        { regressions.append(", ");
+        }
+        regressions.append(key+"="+measured+" > "+budget.getProperty(key).trim());
+      }
+    }
+    if (regressions.length()>0)
+    {
+      result.setProperty("regression","true");
+      result.setProperty("regression.detail",regressions.toString());
+    }
+    out.println(" ");
+  }
+  
+  private void printRow(PrintStream out,String name,Measurement measurement)
+  {
+    out.println
+      (String.format
+        ("    %-20s %10.1f %10.1f %10.1f %10.1f"
+        ,name
+        ,measurement.getPercentileMillis(50)
+        ,measurement.getPercentileMillis(90)
+        ,measurement.getPercentileMillis(100)
+        ,measurement.getMeanMillis()
+        )
+      );
+  }
+  
+  private static long percentile(long[] sorted,double percentile)
+  {
+    int index=(int) Math.ceil(percentile/100.0*sorted.length)-1;
+    return sorted[Math.max(0,Math.min(sorted.length-1,index))];
+  }
+  
+  private static String format(double millis)
+  { return String.format(Locale.ROOT,"%.1f",millis);
+  }
+}
@@ -0,0 +1,453 @@
+//
+// Copyright (c) 2026 Michael Toth
+// Spiralcraft Inc., All Rights Reserved
+//
+// This package is part of the Spiralcraft project and is licensed under
+// a multiple-license framework.
+//
+// You may not use this file except in compliance with the terms found in the
+// SPIRALCRAFT-LICENSE.txt file at the top of this distribution, or available
+// at http://www.spiralcraft.org/licensing/SPIRALCRAFT-LICENSE.txt.
+//
+// Unless otherwise agreed to in writing, this software is distributed on an
+// "AS IS" basis, WITHOUT WARRANTY OF ANY KIND, either express or implied.
+//
+package spiralcraft.launcher.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+import spiralcraft.launcher.LibraryCatalog;
+import spiralcraft.launcher.LibraryClassLoader;
+import spiralcraft.main.JarClassResource;
+import spiralcraft.main.LauncherClassLoader;
+
+/**
+ * <p>Hammers loadClass, getResource, getResources and getResourceAsStream
+ *   from many threads against LibraryClassLoader and the boot 
+ *   LauncherClassLoader, shutting the ClassLoader down part way through
+ *   each round, and checks every result.
+ * </p>
+ * 
+ * <p>Before shutdown, every operation must succeed with the expected 
+ *   result. Once shutdown has started, an operation may instead be
+ *   rejected cleanly- a ClassNotFoundException, a null result or an
+ *   IllegalStateException- but must never return partial or wrong data
+ *   or fail in any other way. The first few errors are printed, and
+ *   the throughput of each operation is reported.
+ * </p>
+ */
+public class StressBenchmark
+  implements BenchmarkSuite
+{
+  private static final String[] OPERATIONS
+    ={"loadClass","getResource","getResources","getResourceAsStream"};
+  private static final int MAX_ERRORS_REPORTED=10;
+  
+  @Override
+  public String getDescription()
+  { return "Concurrent class and resource loading across shutdown";
+  }
+
+  @Override
+  public String getUsage()
+  { 
+    return "[-threads 8] [-rounds 5] [-duration 1000] [-shutdownAt 75]"
+      +" [-jars 10] [-classes 100] [-entries 100] [-stored 50]";
+  }
+
+  @Override
+  public void run(BenchmarkOptions options,PrintStream out)
+    throws Exception
+  {
+    int threads=options.getInt("threads",8);
+    int rounds=options.getInt("rounds",5);
+    int duration=options.getInt("duration",1000);
+    int shutdownAt=options.getInt("shutdownAt",75);
+    
+    File dir=CodebaseGenerator.createTempDir("spiralcraft-stress-bench");
+    try
+    {
+      CodebaseGenerator generator
+        =new CodebaseGenerator()
+          .setJars(options.getInt("jars",10))
+          .setClasses(options.getInt("classes",100))
+          .setEntries(options.getInt("entries",100))
+          .setStoredPercent(options.getInt("stored",50));
+      generator.generate(dir);
+      
+      final File[] jarFiles=dir.listFiles();
+      final LibraryCatalog catalog=new LibraryCatalog(dir,false);
+      Map<String,Long> checksums=readChecksums(jarFiles);
+      
+      out.println
+        ("  "+generator.getClassNames().size()+" classes and "
+        +generator.getEntryNames().size()+" resources in "+jarFiles.length
+        +" jars, "+threads+" threads, "+rounds+" rounds of "+duration
+        +"ms, shutdown at "+shutdownAt+"%"
+        );
+      out.println(" ");
+      
+      int errors=0;
+      try
+      {
+        errors+=stress
+          ("LibraryClassLoader"
+          ,new LoaderFactory()
+          {
+            @Override
+            public ClassLoader create()
+              throws Exception
+            { 
+              LibraryClassLoader loader=new LibraryClassLoader(catalog);
+              loader.addAllModules();
+              return loader;
+            }
+            
+            @Override
+            public void shutdown(ClassLoader loader)
+            { ((LibraryClassLoader) loader).shutdown();
+            }
+          }
+          ,generator,checksums,threads,rounds,duration,shutdownAt,out
+          );
+        
+        errors+=stress
+          ("LauncherClassLoader"
+          ,new LoaderFactory()
+          {
+            @Override
+            public ClassLoader create()
+              throws Exception
+            { 
+              LauncherClassLoader loader
+                =new LauncherClassLoader
+                  (LauncherClassLoader.class.getClassLoader());
+              for (File jarFile:jarFiles)
+              { loader.addResource(new JarClassResource(jarFile.getPath()));
+              }
+              return loader;
+            }
+            
+            @Override
+            public void shutdown(ClassLoader loader)
+            { ((LauncherClassLoader) loader).shutdown();
+            }
+          }
+          ,generator,checksums,threads,rounds,duration,shutdownAt,out
+          );
+      }
+      finally
+      { catalog.close();
+      }
+      
+      if (errors>0)
+      { throw new Exception(errors+" errors during stress test");
+      }
+      out.println("  No errors");
+    }
+    finally
+    { CodebaseGenerator.delete(dir);
+    }
+  }
+  
+  private int stress
+    (String name
+    ,LoaderFactory factory
+    ,CodebaseGenerator generator
+    ,final Map<String,Long> checksums
+    ,int threads
+    ,int rounds
+    ,int duration
+    ,int shutdownAt
+    ,PrintStream out
+    )
+    throws Exception
+  {
+    final String[] classNames
+      =toArray(generator.getClassNames());
+    final String[] entryNames
+      =toArray(generator.getEntryNames());
+    final Statistics statistics=new Statistics();
+    long elapsed=0;
+    
+    for (int round=0;round<rounds;round++)
+    {
+      final ClassLoader loader=factory.create();
+      final RoundState state=new RoundState();
+      final CountDownLatch ready=new CountDownLatch(threads);
+      final CountDownLatch go=new CountDownLatch(1);
+      Thread[] workers=new Thread[threads];
+      for (int t=0;t<threads;t++)
+      {
+        final long seed=round*1000+t;
+        workers[t]
+          =new Thread
+            (new Runnable()
+            {
+              @Override
+              public void run()
+              {
+                Random random=new Random(seed);
+                ready.countDown();
+                try
+                { go.await();
+                }
+                catch (InterruptedException x)
+                { return;
+                }
+                while (!state.stopping)
+                {
+                  int operation=random.nextInt(OPERATIONS.length);
+                  String target
+                    =operation==0
+                    ?classNames[random.nextInt(classNames.length)]
+                    :entryNames[random.nextInt(entryNames.length)];
+                  String error;
+                  try
+                  { error=perform(loader,operation,target,checksums);
+                  }
+                  catch (Throwable x)
+                  { error=x.toString();
+                  }
+                  
+                  if (error==null)
+                  { statistics.completed[operation].increment();
+                  }
+                  else if (state.shutdown && isRejection(error))
+                  { statistics.rejected[operation].increment();
+                  }
+                  else
+                  { 
+                    statistics.error
+                      (OPERATIONS[operation]+"("+target+")"
+                      +(state.shutdown?" after shutdown":"")+": "+error
+                      );
+                  }
+                }
+              }
+            }
+            ,name+"-stress-"+t
+            );
+        workers[t].start();
+      }
+      
+      ready.await();
+      long start=System.nanoTime();
+      go.countDown();
+      Thread.sleep(duration*shutdownAt/100);
+      state.shutdown=true;
+      factory.shutdown(loader);
+      Thread.sleep(duration-duration*shutdownAt/100);
+      state.stopping=true;
+      for (Thread worker:workers)
+      { worker.join();
+      }
+      elapsed+=System.nanoTime()-start;
+    }
+    
+    out.println("  "+name);
+    out.println
+      (String.format
+        ("    %-24s %12s %12s %12s %8s"
+        ,"operation","completed","ops/s","rejected","errors"
+        )
+      );
+    for (int i=0;i<OPERATIONS.length;i++)
+    {
+      long completed=statistics.completed[i].sum();
+      out.println
+        (String.format
+          ("    %-24s %12d %12.0f %12d %8d"
+          ,OPERATIONS[i]
+          ,completed
+          ,elapsed>0?completed*1000000000.0/elapsed:0
+          ,statistics.rejected[i].sum()
+          ,statistics.errorCount(i)
+          )
+        );
+    }
+    for (String error:statistics.reported)
+    { out.println("    ERROR "+error);
+    }
+    out.println(" ");
+    return statistics.errors;
+  }
+  
+  /**
+   * Perform an operation and verify its result
+   * 
+   * @return null if the result is correct, or a description of the error
+   */
+  private static String perform
+    (ClassLoader loader,int operation,String target,Map<String,Long> checksums)
+    throws Exception
+  {
+    switch (operation)
+    {
+      case 0:
+      {
+        Class<?> clazz=Class.forName(target,false,loader);
+        if (!clazz.getName().equals(target) || clazz.getClassLoader()!=loader)
+        { return "loaded "+clazz+" from "+clazz.getClassLoader();
+        }
+        return null;
+      }
+      case 1:
+      {
+        URL url=loader.getResource(target);
+        if (url==null)
+        { return "null";
+        }
+        if (!url.toString().endsWith(target))
+        { return "wrong URL "+url;
+        }
+        return null;
+      }
+      case 2:
+      {
+        Enumeration<URL> urls=loader.getResources(target);
+        int count=0;
+        while (urls.hasMoreElements())
+        { 
+          urls.nextElement();
+          count++;
+        }
+        if (count==0)
+        { return "null";
+        }
+        if (count!=1)
+        { return count+" URLs";
+        }
+        return null;
+      }
+      default:
+      {
+        InputStream in=loader.getResourceAsStream(target);
+        if (in==null)
+        { return "null";
+        }
+        try
+        {
+          CRC32 crc=new CRC32();
+          crc.update(in.readAllBytes());
+          if (crc.getValue()!=checksums.get(target))
+          { return "partial or corrupt read";
+          }
+        }
+        finally
+        { in.close();
+        }
+        return null;
+      }
+    }
+  }
+  
+  /**
+   * Whether an error is an acceptable outcome of using a ClassLoader 
+   *   that has been shut down
+   */
+  private static boolean isRejection(String error)
+  {
+    return error.equals("null")
+      || error.startsWith(ClassNotFoundException.class.getName())
+      || error.startsWith(IllegalStateException.class.getName())
+      ;
+  }
+  
+  private static Map<String,Long> readChecksums(File[] jarFiles)
+    throws IOException
+  {
+    Map<String,Long> checksums=new HashMap<String,Long>();
+    for (File file:jarFiles)
+    {
+      try (JarFile jarFile=new JarFile(file))
+      {
+        Enumeration<JarEntry> entries=jarFile.entries();
+        while (entries.hasMoreElements())
+        {
+          JarEntry entry=entries.nextElement();
+          try (InputStream in=jarFile.getInputStream(entry))
+          {
+            CRC32 crc=new CRC32();
+            crc.update(in.readAllBytes());
+            checksums.put(entry.getName(),crc.getValue());
+          }
+        }
+      }
+    }
+    return checksums;
+  }
+  
+  private static String[] toArray(List<String> list)
+  { return list.toArray(new String[list.size()]);
+  }
+  
+  private static class RoundState
+  { 
+    volatile boolean shutdown;
+    volatile boolean stopping;
+  }
+  
+  private static class Statistics
+  {
+    final LongAdder[] completed=newAdders();
+    final LongAdder[] rejected=newAdders();
+    final int[] errorCounts=new int[OPERATIONS.length];
+    final List<String> reported=new ArrayList<String>();
+    int errors;
+    
+    synchronized void error(String description)
+    { 
+      errors++;
+      for (int i=0;i<OPERATIONS.length;i++)
+      {
+        if (description.startsWith(OPERATIONS[i]+"("))
+        { errorCounts[i]++;
+        }
+      }
+      if (reported.size()<MAX_ERRORS_REPORTED)
+      { reported.add(description);
+      }
+    }
+    
+    synchronized int errorCount(int operation)
+    { return errorCounts[operation];
+    }
+    
+    private static LongAdder[] newAdders()
+    {
+      LongAdder[] adders=new LongAdder[OPERATIONS.length];
+      for (int i=0;i<adders.length;i++)
+      { adders[i]=new LongAdder();
+      }
+      return adders;
+    }
+  }
+  
+  /**
+   * Creates and shuts down the ClassLoader under test
+   */
+  private interface LoaderFactory
+  {
+    ClassLoader create()
+      throws Exception;
+    
+    void shutdown(ClassLoader loader)
+      throws Exception;
+  }
+}